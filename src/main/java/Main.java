@@ -71,16 +71,48 @@ public class Main {
                     throw new IllegalArgumentException("Input instance contains TT tasks, but the algorithm takes only ET tasks");
                 }
                 EtScheduleGraphTest sgc = new EtScheduleGraphTest(etTasks);
-                schedulable = sgc.generateGraphTest(!generateFullGraph, policy, saveGraph);
+                if (ap.presentArgs.containsKey('t')) {
+                    sgc.setParallelism(Integer.parseInt(ap.presentArgs.get('t')));
+                }
                 if (saveGraph) {
-                    sgc.saveGraphToFile(fileOutPath + ".sg.dot", false);
+                    boolean compress = ap.presentFlags.contains('z');
+                    schedulable = sgc.generateGraphTestToFile(!generateFullGraph, policy,
+                            fileOutPath + ".sg.dot" + (compress ? ".gz" : ""), false, compress);
+                } else {
+                    schedulable = sgc.generateGraphTest(!generateFullGraph, policy, false);
+                }
+            } else if (algorithmName.equals("ET-SG-DF")) {
+                if (!ttTasks.isEmpty()) {
+                    throw new IllegalArgumentException("Input instance contains TT tasks, but the algorithm takes only ET tasks");
+                }
+                int hyperperiod = JobTaskUtils.getHyperperiodForTasks(null, etTasks);
+                long jobCount = 0;
+                for (EtTask et : etTasks) {
+                    jobCount += hyperperiod / et.getPeriod();
+                }
+                EtScheduleGraphTest sgc = new EtScheduleGraphTest(etTasks);
+                schedulable = sgc.generateGraphTestDepthFirst(policy, 4 * jobCount);
+                if (sgc.getDeadlineMissWitness() != null) {
+                    System.out.println("Deadline miss witness:");
+                    for (EtJob job : sgc.getDeadlineMissWitness()) {
+                        System.out.println("   " + job);
+                    }
                 }
             } else if (algorithmName.startsWith("ETTT-BF")) {
                 EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                ebfs.setUseCheckpoints(true);
+                ebfs.setUsePrefixPruning(true);
+                ebfs.setOrderJobsByTime(true);
+                ebfs.setUseNogoodCache(true);
+                ebfs.setUseOccupancyBitset(true);
+                int threads = ap.presentArgs.containsKey('t') ? Integer.parseInt(ap.presentArgs.get('t')) : 1;
                 if (algorithmName.equals("ETTT-BF-WJ")) {
-                    schedulable = ebfs.processTasks(true);
+                    schedulable = threads > 1 ? ebfs.processTasksParallel(true, false, threads) : ebfs.processTasks(true);
+                } else if (algorithmName.equals("ETTT-BF-EP")) {
+                    ebfs.setUseEventPoints(true);
+                    schedulable = threads > 1 ? ebfs.processTasksParallel(true, false, threads) : ebfs.processTasks(true);
                 } else if (algorithmName.equals("ETTT-BF-NJ")) {
-                    schedulable = ebfs.processTasksNoJitter(true);
+                    schedulable = threads > 1 ? ebfs.processTasksParallel(true, true, threads) : ebfs.processTasksNoJitter(true);
                 } else {
                     throw new IllegalArgumentException("Unknown algorithm: " + algorithmName);
                 }
@@ -118,10 +150,12 @@ public class Main {
         System.out.println("Implements various ET+TT scheduling related algorithms");
         System.out.println();
         System.out.println("Parameters:");
-        System.out.println("   -a      Specify the algorithm (ET-BF, ET-SG, ETTT-BF-WJ, ETTT-BF-NJ, ETTT-FG)");
+        System.out.println("   -a      Specify the algorithm (ET-BF, ET-SG, ET-SG-DF, ETTT-BF-WJ, ETTT-BF-EP, ETTT-BF-NJ, ETTT-FG)");
         System.out.println("                 ET-BF: brute force algorithm which finds if a set of ET tasks is schedulable");
         System.out.println("                 ET-SG: schedule graph based algorithm which finds if a set of ET tasks is schedulable");
+        System.out.println("                 ET-SG-DF: ET-SG which first searches for a deadline miss depth first and prints the jobs leading to it");
         System.out.println("                 ETTT-BF-WJ: brute force algorithm which finds start times for TT tasks with jitter");
+        System.out.println("                 ETTT-BF-EP: ETTT-BF-WJ which tries only start times at event points (heuristic, may miss a solution)");
         System.out.println("                 ETTT-BF-NJ: brute force algorithm which finds start times for TT tasks with zero jitter");
         System.out.println("                 ETTT-FG: fixation graph generation algorithm which finds start times for TT tasks with jitter (work only for the EDF-FP policy)");
         System.out.println();
@@ -131,7 +165,10 @@ public class Main {
         System.out.println("                 CP: Critical point");
         System.out.println("                 CW: Critical window");
         System.out.println();
+        System.out.println("   -t      Specify the number of threads (ET-SG and ETTT-BF only, default 1)");
+        System.out.println();
         System.out.println("   -g      Save a schedule/fixation graph, if the specified algorithm uses it");
+        System.out.println("   -z      Gzip compress the saved schedule graph (ET-SG only)");
         System.out.println("   -f      Creates the entire schedule graph even if there is a deadline miss");
         System.out.println("   -s      Saves start times into a file, if the specified algorithm generates them");
         System.out.println();
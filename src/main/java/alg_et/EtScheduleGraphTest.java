@@ -4,10 +4,18 @@ import model.EtJob;
 import model.EtTask;
 import model.SchedulingPolicy;
 import util.JobTaskUtils;
+import util.ZobristHasher;
 
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 public class EtScheduleGraphTest {
 
@@ -18,14 +26,16 @@ public class EtScheduleGraphTest {
         int min; //earliest finish time
         int max; //latest finish time
         int[] taskPeriods; //Indices of the the applicable jobs
+        long hash; //Zobrist hash of taskPeriods
         boolean causedDeadlineMiss;
         ArrayList<Node> parents;
         ArrayList<Node> children;
 
-        public Node(int min, int max, int[] taskPeriods, Node parent, boolean causedDeadlineMiss) {
+        public Node(int min, int max, int[] taskPeriods, long hash, Node parent, boolean causedDeadlineMiss) {
             this.min = min;
             this.max = max;
             this.taskPeriods = taskPeriods;
+            this.hash = hash;
             this.parents = new ArrayList<>();
             if (parent != null) {
                 parents.add(parent);
@@ -47,6 +57,7 @@ public class EtScheduleGraphTest {
             return new Node(earliestEligibleTime+job.getExecutionTimeMin(),
                     latestEligibleTime+job.getExecutionTimeMax(),
                     newTaskPeriods,
+                    getHasher().increment(hash, job.getTaskId(), taskPeriods[job.getTaskId()]),
                     this,
                     latestEligibleTime+job.getExecutionTimeMax() > job.getDeadline());
         }
@@ -75,12 +86,12 @@ public class EtScheduleGraphTest {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             Node node = (Node) o;
-            return Arrays.equals(taskPeriods, node.taskPeriods);
+            return hash == node.hash && Arrays.equals(taskPeriods, node.taskPeriods);
         }
 
         @Override
         public int hashCode() {
-            return Arrays.hashCode(taskPeriods);
+            return ZobristHasher.fold(hash);
         }
 
         @Override
@@ -100,6 +111,35 @@ public class EtScheduleGraphTest {
 
     ArrayList<EtJob>[] etJobs;
     Node rootNode;
+    private ZobristHasher hasher;
+    boolean useNodeStore = true; //Keep the levels in flat primitive arrays when the graph is not saved
+    ArrayList<EtJob> deadlineMissWitness; //Result of the last depth first search
+    private final ThreadLocal<ExpansionKernel> expansionKernels = ThreadLocal.withInitial(() -> new ExpansionKernel(etJobs.length));
+    boolean usePolicyKernels = true; //Find the critical job with the kernels dedicated to each policy
+    int parallelism = 1; //Number of threads which expand and merge a level, used only together with the node store
+
+    boolean useSegmentation = false; //Analyse the segments between synchronisation points concurrently
+    int analysedSegments = 0; //Number of segments analysed by the last graph test, 1 if it was not segmented
+    ArrayList<FrontierNode> windowFrontier; //Nodes which were not expanded by the last window of the graph
+    public int expandedLevels = 0; //Number of levels expanded by the last graph test, for benchmarking
+
+    //Checkpoints of the last graph, so that it can be resumed after some jobs are changed (see generateGraphTestResumed)
+    boolean keepCheckpoints = false;
+    private final ArrayList<NodeStore> checkpoints = new ArrayList<>(); //Element L is level L of the last graph
+    private final ArrayList<int[]> checkpointMaxTaskPeriods = new ArrayList<>(); //Element L: maximal task periods of the nodes in levels < L
+    private int[] checkpointHorizons = new int[16]; //Element L: latest EDF-FP expansion end of the nodes in levels < L
+    private boolean[] checkpointDeadlineMisses = new boolean[16]; //Element L: if any node in levels <= L caused a deadline miss
+    private int checkpointCount = 0;
+    private SchedulingPolicy checkpointPolicy;
+
+    //Jobs which may have been read by the expanded levels of the last graph (see JobSet.anyRead)
+    boolean trackReadJobs = false;
+    private int[] lastReadTaskPeriods; //Maximal task periods of the expanded nodes, null if they were not tracked
+    private int lastReadHorizon; //Latest EDF-FP expansion end of the expanded nodes
+
+    int minParallelLevelSize = 256; //Smaller levels are expanded and merged by the calling thread
+    int minChunkSize = 64; //Minimal number of nodes expanded by one fork join task
+    private static final int CHUNKS_PER_THREAD = 4; //More chunks than threads balance uneven expansion costs
 
     public EtScheduleGraphTest(ArrayList<EtTask> etTasks) {
         int hyperperiod = JobTaskUtils.getHyperperiodForTasks(null, etTasks);
@@ -110,27 +150,248 @@ public class EtScheduleGraphTest {
         this.etJobs = etJobs;
     }
 
+    ZobristHasher getHasher() {
+        if (hasher == null) {
+            int[] jobCounts = new int[etJobs.length];
+            for (int i = 0; i < etJobs.length; i++) {
+                jobCounts[i] = etJobs[i].size();
+            }
+            hasher = new ZobristHasher(jobCounts);
+        }
+        return hasher;
+    }
+
+    /**
+     * @param useNodeStore if the levels of the graph should be kept in flat primitive arrays (see NodeStore)
+     *                     instead of Node objects, it is ignored if the graph should be saved
+     */
+    public void setUseNodeStore(boolean useNodeStore) {
+        this.useNodeStore = useNodeStore;
+    }
+
+    /**
+     * @param usePolicyKernels if the critical job and time of P-RM, CP and CW should be found by the kernels dedicated
+     *                         to each policy (see ExpansionKernel) instead of the generic computation
+     */
+    public void setUsePolicyKernels(boolean usePolicyKernels) {
+        this.usePolicyKernels = usePolicyKernels;
+    }
+
+    /**
+     * @param parallelism number of threads which expand and merge the nodes of a level, 1 processes the levels
+     *                    sequentially. The levels are processed in parallel only when the node store is used.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but is " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param useSegmentation if the hyperperiod should be split at synchronisation points (see findSegments) and the
+     *                        segments analysed concurrently by parallelism threads. It is used only together with the
+     *                        node store when the graph is not written.
+     */
+    public void setUseSegmentation(boolean useSegmentation) {
+        this.useSegmentation = useSegmentation;
+    }
+
+    /**
+     * @param keepCheckpoints if every level of the graph should be kept, so that the next graph test can resume from
+     *                        the last level which does not depend on the changed jobs (see generateGraphTestResumed).
+     *                        It is used only together with the node store when the graph is not written.
+     */
+    public void setKeepCheckpoints(boolean keepCheckpoints) {
+        this.keepCheckpoints = keepCheckpoints;
+        if (!keepCheckpoints) {
+            checkpoints.clear();
+            checkpointMaxTaskPeriods.clear();
+            checkpointCount = 0;
+        }
+    }
+
+    /**
+     * @param trackReadJobs if the jobs which may be read by the expansions should be tracked (see getReadTaskPeriods).
+     *                      They are always tracked when checkpoints are kept.
+     */
+    public void setTrackReadJobs(boolean trackReadJobs) {
+        this.trackReadJobs = trackReadJobs;
+    }
+
+    /**
+     * A job of the last graph test which used the node store may have been read by an expansion only if its period
+     * (repetition) is at most the returned period of its task and, under EDF-FP, if its earliest release time is at
+     * most the read horizon (see getReadHorizon). If the last test found a deadline miss, the miss is found for any
+     * parameters of the other jobs, as long as their earliest release times stay after the read horizon under EDF-FP.
+     * @return maximal task periods of the expanded nodes, null if the read jobs were not tracked
+     */
+    public int[] getReadTaskPeriods() {
+        return lastReadTaskPeriods;
+    }
+
+    /**
+     * @return latest time up to which the expansions of the last graph test read the releases of jobs under EDF-FP,
+     * see getReadTaskPeriods
+     */
+    public int getReadHorizon() {
+        return lastReadHorizon;
+    }
+
+    /**
+     * Expansion sink which writes the children of one node into a node store
+     */
+    private class NodeStoreSink implements ExpansionSink {
+        NodeStore parentLevel;
+        NodeStore childLevel;
+        int parentOffset;
+        boolean deadlineMissFound = false; //If any child written by this sink caused a deadline miss
+
+        @Override
+        public void addChild(EtJob job, int earliestEligibleTime, int latestEligibleTime) {
+            int latestFinishTime = latestEligibleTime + job.getExecutionTimeMax();
+            boolean causedDeadlineMiss = latestFinishTime > job.getDeadline();
+            childLevel.addChild(parentLevel, parentOffset, job.getTaskId(),
+                    earliestEligibleTime + job.getExecutionTimeMin(), latestFinishTime, causedDeadlineMiss);
+            deadlineMissFound |= causedDeadlineMiss;
+        }
+    }
+
+    /**
+     * Expands the nodes from (inclusive) ... to (exclusive) of the sink's parent level into the sink's child level
+     * @param cancel flag shared by threads expanding the same level, it is set after this expansion finds a deadline
+     *               miss and the expansion stops if it is set by any thread, null if the expansion cannot be cancelled
+     */
+    private void expandRange(NodeStoreSink sink, int from, int to, SchedulingPolicy policy, AtomicBoolean cancel) {
+        NodeStore level = sink.parentLevel;
+        for (int i = from; i < to; i++) {
+            if (cancel != null && cancel.get()) {
+                return;
+            }
+            sink.parentOffset = i;
+            if (policy == SchedulingPolicy.EDFFP) {
+                expansionPhaseEdffp(level.min[i], level.max[i], level.taskPeriods, i * etJobs.length, sink);
+            } else {
+                expansionPhaseAnyPolicy(level.min[i], level.max[i], level.taskPeriods, i * etJobs.length, policy, sink);
+            }
+            if (cancel != null && sink.deadlineMissFound) {
+                cancel.set(true);
+            }
+        }
+    }
+
+    /**
+     * Expands a level in a fork join pool. The level is split into consecutive chunks and the children of each chunk
+     * are written into its own buffer. The buffers are concatenated in the chunk order afterwards, so the next level
+     * is the same as if the level was expanded sequentially.
+     */
+    private class ParallelLevelExpansion {
+        final ForkJoinPool pool;
+        final SchedulingPolicy policy;
+        final boolean terminateAfterDeadlineMiss;
+        final AtomicBoolean deadlineMissFound = new AtomicBoolean(false);
+        final ArrayList<NodeStore> buffers = new ArrayList<>(); //Reused between levels
+        NodeStore curLevel;
+        int chunkSize;
+
+        ParallelLevelExpansion(ForkJoinPool pool, SchedulingPolicy policy, boolean terminateAfterDeadlineMiss) {
+            this.pool = pool;
+            this.policy = policy;
+            this.terminateAfterDeadlineMiss = terminateAfterDeadlineMiss;
+        }
+
+        /**
+         * @return if a deadline miss was found, the next level is not complete if the expansion was cancelled
+         */
+        boolean expandLevel(NodeStore curLevel, NodeStore nextLevel) {
+            this.curLevel = curLevel;
+            int chunkCount = Math.min(parallelism * CHUNKS_PER_THREAD, (curLevel.size + minChunkSize - 1) / minChunkSize);
+            chunkSize = (curLevel.size + chunkCount - 1) / chunkCount;
+            chunkCount = (curLevel.size + chunkSize - 1) / chunkSize;
+            while (buffers.size() < chunkCount) {
+                buffers.add(new NodeStore(etJobs.length, 64, getHasher()));
+            }
+            pool.invoke(new ChunkTask(0, chunkCount));
+            for (int c = 0; c < chunkCount; c++) {
+                NodeStore buffer = buffers.get(c);
+                nextLevel.appendAll(buffer);
+                buffer.clear();
+            }
+            return deadlineMissFound.get();
+        }
+
+        private class ChunkTask extends RecursiveAction {
+            final int fromChunk;
+            final int toChunk;
+
+            ChunkTask(int fromChunk, int toChunk) {
+                this.fromChunk = fromChunk;
+                this.toChunk = toChunk;
+            }
+
+            @Override
+            protected void compute() {
+                if (toChunk - fromChunk > 1) {
+                    int mid = (fromChunk + toChunk) >>> 1;
+                    invokeAll(new ChunkTask(fromChunk, mid), new ChunkTask(mid, toChunk));
+                    return;
+                }
+                NodeStoreSink sink = new NodeStoreSink();
+                sink.parentLevel = curLevel;
+                sink.childLevel = buffers.get(fromChunk);
+                int from = fromChunk * chunkSize;
+                int to = Math.min(from + chunkSize, curLevel.size);
+                expandRange(sink, from, to, policy, terminateAfterDeadlineMiss ? deadlineMissFound : null);
+                if (sink.deadlineMissFound) {
+                    deadlineMissFound.set(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the children created during an expansion phase.
+     * A child is defined by the job which was executed and the interval in which the job could have started.
+     */
+    interface ExpansionSink {
+        void addChild(EtJob job, int earliestEligibleTime, int latestEligibleTime);
+    }
+
     /**
      * Expansion phase for the EDF-FP policy
      * @param curNode node which should be expanded
      * @return a list of expanded nodes
      */
     private ArrayList<Node> expansionPhaseEdffp(Node curNode) {
-        //Initialize array with relevant job period for each task
         ArrayList<Node> ret = new ArrayList<>();
+        expansionPhaseEdffp(curNode.min, curNode.max, curNode.taskPeriods, 0,
+                (job, eet, let) -> ret.add(curNode.expandNodeWithJob(job, eet, let)));
+        return ret;
+    }
+
+    /**
+     * Expansion phase for the EDF-FP policy which does not depend on a node representation
+     * @param nodeMin earliest finish time of the expanded node
+     * @param nodeMax latest finish time of the expanded node
+     * @param taskPeriods array containing the task periods of the expanded node
+     * @param periodsOffset index at which the task periods of the expanded node start in taskPeriods
+     * @param sink receiver of the created children
+     */
+    void expansionPhaseEdffp(int nodeMin, int nodeMax, int[] taskPeriods, int periodsOffset, ExpansionSink sink) {
+        //Initialize array with relevant job period for each task
         int earliestCrTime = Integer.MAX_VALUE;
         EtJob[] curJobs = new EtJob[etJobs.length];
         for (int i = 0; i < etJobs.length; i++) {
-            int curTaskPeriod = curNode.taskPeriods[i];
+            int curTaskPeriod = taskPeriods[periodsOffset + i];
             if (etJobs[i].size() != curTaskPeriod) {
                 curJobs[i] = etJobs[i].get(curTaskPeriod);
                 earliestCrTime = Math.min(earliestCrTime, curJobs[i].getReleaseTimeMax());
             }
         }
         if (earliestCrTime == Integer.MAX_VALUE) {
-            return ret; //All jobs are finished
+            return; //All jobs are finished
         }
-        int extendedMax = Math.max(earliestCrTime, curNode.max);
+        int extendedMax = Math.max(earliestCrTime, nodeMax);
 
         // Create an array of applicable jobs and sort them by Certain and Possible Release (CR & PR)
         EtJob[] appJobs = new EtJob[etJobs.length];
@@ -156,8 +417,8 @@ public class EtScheduleGraphTest {
             //Determine time of the next event (time at which any job becomes certainly or possibly released) and its properties
             newCrs = false;
             newUrs = false;
-            int actualCrTime = crIndex >= appJobsTotal ? Integer.MAX_VALUE : Math.max(curNode.min, jobsSortedByCr[crIndex].getReleaseTimeMax());
-            int actualUrTime = prIndex >= appJobsTotal ? Integer.MAX_VALUE : Math.max(curNode.min, jobsSortedByPr[prIndex].getReleaseTimeMin());
+            int actualCrTime = crIndex >= appJobsTotal ? Integer.MAX_VALUE : Math.max(nodeMin, jobsSortedByCr[crIndex].getReleaseTimeMax());
+            int actualUrTime = prIndex >= appJobsTotal ? Integer.MAX_VALUE : Math.max(nodeMin, jobsSortedByPr[prIndex].getReleaseTimeMin());
             int newT = Math.min(actualCrTime,actualUrTime);
             if (newT == Integer.MAX_VALUE) {
                 t = extendedMax+1;
@@ -200,16 +461,14 @@ public class EtScheduleGraphTest {
             if (newCeJob != null) {
                 peJobs.remove(newCeJob);
                 if (ceJob != null) { //Create a new node from the previous certainly-eligible job
-                    Node nextNode = curNode.expandNodeWithJob(ceJob, Math.max(curNode.min, ceJob.getReleaseTimeMin()), t-1);
-                    ret.add(nextNode);
+                    sink.addChild(ceJob, Math.max(nodeMin, ceJob.getReleaseTimeMin()), t-1);
                 }
                 ceJob = newCeJob;
                 //Take out possibly-eligible jobs that are no longer eligible
                 for (int j = 0; j < peJobs.size();) {
                     EtJob curJob = peJobs.get(j);
                     if (curJob.compareTo(ceJob) > 0) {
-                        Node nextNode = curNode.expandNodeWithJob(curJob, Math.max(curNode.min, curJob.getReleaseTimeMin()), t-1);
-                        ret.add(nextNode);
+                        sink.addChild(curJob, Math.max(nodeMin, curJob.getReleaseTimeMin()), t-1);
                         peJobs.remove(j);
                     } else {
                         j++;
@@ -233,8 +492,6 @@ public class EtScheduleGraphTest {
             }
 
         }
-
-        return ret;
     }
 
     /**
@@ -244,116 +501,142 @@ public class EtScheduleGraphTest {
      * @return a list of expanded nodes
      */
     private ArrayList<Node> expansionPhaseAnyPolicy(Node curNode, SchedulingPolicy policy) {
-        //Initialize array with applicable jobs and find the CW
         ArrayList<Node> ret = new ArrayList<>();
+        expansionPhaseAnyPolicy(curNode.min, curNode.max, curNode.taskPeriods, 0, policy,
+                (job, eet, let) -> ret.add(curNode.expandNodeWithJob(job, eet, let)));
+        return ret;
+    }
+
+    /**
+     * Expansion phase for any policy which does not depend on a node representation
+     * @param nodeMin earliest finish time of the expanded node
+     * @param nodeMax latest finish time of the expanded node
+     * @param taskPeriods array containing the task periods of the expanded node
+     * @param periodsOffset index at which the task periods of the expanded node start in taskPeriods
+     * @param policy policy which should be used during the expansion
+     * @param sink receiver of the created children
+     */
+    void expansionPhaseAnyPolicy(int nodeMin, int nodeMax, int[] taskPeriods, int periodsOffset,
+                                 SchedulingPolicy policy, ExpansionSink sink) {
+        //Initialize array with applicable jobs and find the CW
         int cTime = Integer.MAX_VALUE; //Critical time
         EtJob cJob = null; //Critical job
-        EtJob[] appJobs = new EtJob[etJobs.length];
+        ExpansionKernel kernel = expansionKernels.get();
+        EtJob[] appJobs = kernel.appJobs;
 
-        switch(policy) {
-            case EDFFP:
-                for (int i = 0; i < etJobs.length; i++) {
-                    int curTaskPeriod = curNode.taskPeriods[i];
-                    if (etJobs[i].size() != curTaskPeriod) {
-                        EtJob curJob = etJobs[i].get(curTaskPeriod);
-                        appJobs[i] = curJob;
-                        //Select any job as critical job
-                        if (cJob == null) {
-                            cJob = curJob;
+        if (usePolicyKernels) {
+            if (kernel.loadAppJobs(etJobs, taskPeriods, periodsOffset)) {
+                kernel.findCriticalJob(policy);
+                cJob = appJobs[kernel.cTask];
+                cTime = kernel.cTime;
+            }
+        } else {
+            kernel.clearAppJobs();
+            switch(policy) {
+                case EDFFP:
+                    for (int i = 0; i < etJobs.length; i++) {
+                        int curTaskPeriod = taskPeriods[periodsOffset + i];
+                        if (etJobs[i].size() != curTaskPeriod) {
+                            EtJob curJob = etJobs[i].get(curTaskPeriod);
+                            appJobs[i] = curJob;
+                            //Select any job as critical job
+                            if (cJob == null) {
+                                cJob = curJob;
+                            }
                         }
                     }
-                }
-                break;
-            case PRM:
-                EtJob anyJob = null;
-                for (int i = 0; i < etJobs.length; i++) {
-                    int curTaskPeriod = curNode.taskPeriods[i];
-                    if (etJobs[i].size() != curTaskPeriod) {
-                        EtJob curJob = etJobs[i].get(curTaskPeriod);
-                        appJobs[i] = curJob;
-                        //Define the critical job
-                        if (anyJob == null) {
-                            anyJob = curJob;
-                        }
-                        if (curJob.getPriority() == 0 && (cJob == null || cJob.getExecutionTimeMax() > curJob.getExecutionTimeMax()
-                                || (cJob.getExecutionTimeMax() == curJob.getExecutionTimeMax() && cJob.getTaskId() > curJob.getTaskId()))) {
-                            cTime = curJob.getDeadline() - curJob.getExecutionTimeMax();
-                            cJob = curJob;
+                    break;
+                case PRM:
+                    EtJob anyJob = null;
+                    for (int i = 0; i < etJobs.length; i++) {
+                        int curTaskPeriod = taskPeriods[periodsOffset + i];
+                        if (etJobs[i].size() != curTaskPeriod) {
+                            EtJob curJob = etJobs[i].get(curTaskPeriod);
+                            appJobs[i] = curJob;
+                            //Define the critical job
+                            if (anyJob == null) {
+                                anyJob = curJob;
+                            }
+                            if (curJob.getPriority() == 0 && (cJob == null || cJob.getExecutionTimeMax() > curJob.getExecutionTimeMax()
+                                    || (cJob.getExecutionTimeMax() == curJob.getExecutionTimeMax() && cJob.getTaskId() > curJob.getTaskId()))) {
+                                cTime = curJob.getDeadline() - curJob.getExecutionTimeMax();
+                                cJob = curJob;
+                            }
                         }
                     }
-                }
-                if (cJob == null) {
-                    cJob = anyJob;
-                }
-                break;
-            case CP:
-                for (int i = 0; i < etJobs.length; i++) {
-                    int curTaskPeriod = curNode.taskPeriods[i];
-                    if (etJobs[i].size() != curTaskPeriod) { //There are still jobs left for task i
-                        //Assign applicable job for task i to the array
-                        EtJob curJob = etJobs[i].get(curTaskPeriod);
-                        appJobs[i] = curJob;
-                        //Define the critical window
-                        if (cJob == null || cJob.getDeadline() > curJob.getDeadline()
-                                || (cJob.getDeadline() == curJob.getDeadline() && cJob.getTaskId() > curJob.getTaskId())) {
-                            cTime = curJob.getDeadline() - curJob.getExecutionTimeMax();
-                            cJob = curJob;
-                        }
+                    if (cJob == null) {
+                        cJob = anyJob;
                     }
-                }
-                break;
-            case CW:
-                //Fill the appJobs array according to the curNode first
-                for (int i = 0; i < etJobs.length; i++) {
-                    int curTaskPeriod = curNode.taskPeriods[i];
-                    if (etJobs[i].size() != curTaskPeriod) {
-                        appJobs[i] = etJobs[i].get(curTaskPeriod);
+                    break;
+                case CP:
+                    for (int i = 0; i < etJobs.length; i++) {
+                        int curTaskPeriod = taskPeriods[periodsOffset + i];
+                        if (etJobs[i].size() != curTaskPeriod) { //There are still jobs left for task i
+                            //Assign applicable job for task i to the array
+                            EtJob curJob = etJobs[i].get(curTaskPeriod);
+                            appJobs[i] = curJob;
+                            //Define the critical window
+                            if (cJob == null || cJob.getDeadline() > curJob.getDeadline()
+                                    || (cJob.getDeadline() == curJob.getDeadline() && cJob.getTaskId() > curJob.getTaskId())) {
+                                cTime = curJob.getDeadline() - curJob.getExecutionTimeMax();
+                                cJob = curJob;
+                            }
+                        }
                     }
-                }
-                //Sort by jobs deadline, then by id, leave null elements at the end of the array
-                EtJob[] sortedAppJobs = new EtJob[appJobs.length];
-                System.arraycopy(appJobs,0,sortedAppJobs,0,appJobs.length);
-                Arrays.sort(sortedAppJobs, (et1, et2) -> {
-                    if (et1 == null) {
-                        if (et2 == null) {
-                            return 0;
+                    break;
+                case CW:
+                    //Fill the appJobs array according to the curNode first
+                    for (int i = 0; i < etJobs.length; i++) {
+                        int curTaskPeriod = taskPeriods[periodsOffset + i];
+                        if (etJobs[i].size() != curTaskPeriod) {
+                            appJobs[i] = etJobs[i].get(curTaskPeriod);
                         }
-                        return 1;
-                    } else if (et2 == null) {
-                        return -1;
                     }
-                    if (et1.getDeadline() < et2.getDeadline()) {
-                        return 1;
-                    } else if (et1.getDeadline() > et2.getDeadline()) {
-                        return -1;
-                    } else {
-                        if (et1.getTaskId() < et2.getTaskId()) {
+                    //Sort by jobs deadline, then by id, leave null elements at the end of the array
+                    EtJob[] sortedAppJobs = new EtJob[appJobs.length];
+                    System.arraycopy(appJobs,0,sortedAppJobs,0,appJobs.length);
+                    Arrays.sort(sortedAppJobs, (et1, et2) -> {
+                        if (et1 == null) {
+                            if (et2 == null) {
+                                return 0;
+                            }
                             return 1;
-                        } else {
+                        } else if (et2 == null) {
                             return -1;
                         }
+                        if (et1.getDeadline() < et2.getDeadline()) {
+                            return 1;
+                        } else if (et1.getDeadline() > et2.getDeadline()) {
+                            return -1;
+                        } else {
+                            if (et1.getTaskId() < et2.getTaskId()) {
+                                return 1;
+                            } else {
+                                return -1;
+                            }
+                        }
+                    });
+                    //Get the critical job and critical time
+                    cJob = null;
+                    int cwTime = Integer.MAX_VALUE;
+                    for (EtJob sortedAppJob : sortedAppJobs) {
+                        if (sortedAppJob == null) {
+                            break;
+                        }
+                        cJob = sortedAppJob;
+                        if (cJob.getDeadline() < cwTime) {
+                            cwTime = cJob.getDeadline() - cJob.getExecutionTimeMax();
+                        } else {
+                            cwTime -= cJob.getExecutionTimeMax();
+                        }
                     }
-                });
-                //Get the critical job and critical time
-                cJob = null;
-                int cwTime = Integer.MAX_VALUE;
-                for (EtJob sortedAppJob : sortedAppJobs) {
-                    if (sortedAppJob == null) {
-                        break;
-                    }
-                    cJob = sortedAppJob;
-                    if (cJob.getDeadline() < cwTime) {
-                        cwTime = cJob.getDeadline() - cJob.getExecutionTimeMax();
-                    } else {
-                        cwTime -= cJob.getExecutionTimeMax();
-                    }
-                }
-                cTime = cwTime;
-                break;
+                    cTime = cwTime;
+                    break;
+            }
         }
 
         if (cJob == null) {
-            return ret; //All jobs are finished
+            return; //All jobs are finished
         }
 
         //Find the first time a certainly-eligible job exists
@@ -362,222 +645,36 @@ public class EtScheduleGraphTest {
             if (ej == null) {
                 continue;
             }
-            if (ej.equals(cJob) || Math.max(ej.getReleaseTimeMax(), curNode.min) + ej.getExecutionTimeMax() <= cTime) {
+            if (ej.equals(cJob) || Math.max(ej.getReleaseTimeMax(), nodeMin) + ej.getExecutionTimeMax() <= cTime) {
                 earliestCr = Math.min(earliestCr, ej.getReleaseTimeMax());
             }
         }
 
         int actualMax;
-        if (earliestCr > curNode.max) { //If you would put "if (false)" as the condition, the algorithm would still work, this condition is here just to make the algorithm faster
+        if (earliestCr > nodeMax) { //If you would put "if (false)" as the condition, the algorithm would still work, this condition is here just to make the algorithm faster
             actualMax = earliestCr;
         } else {
-            //Find the earliest CR job which does not violate critical time (even outside the curNode.max boundary)
+            //Find the earliest CR job which does not violate critical time (even outside the node max boundary)
             EtJob earliestCrNonViolatingJob = cJob;
             for (EtJob ej : appJobs) {
                 if (ej == null || ej.equals(cJob)) {
                     continue;
                 }
-                if (Math.max(ej.getReleaseTimeMax(), curNode.max) + ej.getExecutionTimeMax() <= cTime
+                if (Math.max(ej.getReleaseTimeMax(), nodeMax) + ej.getExecutionTimeMax() <= cTime
                         && ej.getReleaseTimeMax() < earliestCrNonViolatingJob.getReleaseTimeMax()) {
                     earliestCrNonViolatingJob = ej;
                 }
             }
-            actualMax = Math.max(curNode.max, earliestCrNonViolatingJob.getReleaseTimeMax());
+            actualMax = Math.max(nodeMax, earliestCrNonViolatingJob.getReleaseTimeMax());
         }
 
-        //Event class definition
-        class Event {
-            final int t;
-            ArrayList<EtJob> newCr = null;
-            ArrayList<EtJob> newPr = null;
-            boolean newCm = false;
-
-            public Event(int t) {
-                this.t = t;
-            }
-
-            void addNewCr(EtJob ej) {
-                if (newCr == null) {
-                    newCr = new ArrayList<>();
-                }
-                newCr.add(ej);
-            }
-
-            void addNewUr(EtJob ej) {
-                if (newPr == null) {
-                    newPr = new ArrayList<>();
-                }
-                newPr.add(ej);
-            }
-
-            @Override
-            public String toString() {
-                return "CwEvent, " + "T=" + t + ", newCm?: " + newCm
-                        + ", newCR: " + (newCr == null ? "[]" : newCr.toString())
-                        + ", newPR: " + (newPr == null ? "[]" : newPr.toString());
-            }
-        }
-
-        //Create a list of events, where an event is any time where a job:
-        // - becomes certainly released
-        // - becomes possibly released
-        // - may no longer be eligible due to critical time
-        HashMap<Integer, Event> hashedEvents = new HashMap<>();
+        int cTask = -1;
         for (int i = 0; i < etJobs.length; i++) {
-            EtJob curJob = appJobs[i];
-            if (curJob == null) {
-                continue;
-            }
-
-            int actualPr = Math.max(curNode.min, curJob.getReleaseTimeMin());
-            int actualCr = Math.max(curNode.min, curJob.getReleaseTimeMax());
-            if (actualPr + curJob.getExecutionTimeMax() > cTime && !curJob.equals(cJob)) {
-                continue;
-            }
-
-            //Adding PR event (PR event will not be added if CR is at the same time)
-            if (actualPr != actualCr && actualPr <= actualMax) {
-                if (hashedEvents.containsKey(actualPr)) {
-                    Event curEvent = hashedEvents.get(actualPr);
-                    curEvent.addNewUr(curJob);
-                } else {
-                    Event newEvent = new Event(actualPr);
-                    newEvent.addNewUr(curJob);
-                    hashedEvents.put(actualPr, newEvent);
-                }
-            }
-
-            //Adding CR event (cannot be added if it violates critical time at its max release)
-            if (actualCr <= actualMax && (curJob.getReleaseTimeMax() + curJob.getExecutionTimeMax() <= cTime || curJob.equals(cJob))) {
-                if (hashedEvents.containsKey(actualCr)) {
-                    Event curEvent = hashedEvents.get(actualCr);
-                    curEvent.addNewCr(curJob);
-                } else {
-                    Event newEvent = new Event(actualCr);
-                    newEvent.addNewCr(curJob);
-                    hashedEvents.put(actualCr, newEvent);
-                }
-            }
-
-            //Adding CM (can be added only if it is within node range)
-            int actualCm = Math.max(curNode.min, cTime - curJob.getExecutionTimeMax() + 1);
-            if (actualCm <= actualMax && !curJob.equals(cJob)) {
-                if (hashedEvents.containsKey(actualCm)) {
-                    Event curEvent = hashedEvents.get(actualCm);
-                    curEvent.newCm = true;
-                } else {
-                    Event newEvent = new Event(actualCm);
-                    newEvent.newCm = true;
-                    hashedEvents.put(actualCm, newEvent);
-                }
-            }
-        }
-
-        Event finishingEvent = new Event(actualMax+1);
-        finishingEvent.addNewCr(new EtJob(-1,-1,-1,-1,-1,-1,-1,-1,-1));
-        hashedEvents.put(actualMax+1, finishingEvent);
-
-        ArrayList<Event> events = new ArrayList<>(hashedEvents.values());
-        events.sort(Comparator.comparingInt(ce -> ce.t));
-
-        //Main cycle, keep track of the eligible jobs and create new nodes if needed
-        PriorityQueue<EtJob> crJobs = new PriorityQueue<>(); //Certainly released jobs which do not violate critical time sorted by priority
-        int ceJobStartTime = -1;
-        ArrayList<EtJob> prJobs = new ArrayList<>(); //List of possibly released jobs
-        ArrayList<Integer> prJobsStartTimes = new ArrayList<>(); //Times, when a possibly released job became possibly eligible -1 if the job is not possibly-eligible at the moment
-        int eventsIndex = 0;
-        //Go through all events
-        while (events.size() > eventsIndex) {
-            Event curEvent = events.get(eventsIndex++);
-            EtJob previousBestCr = crJobs.peek();
-
-            //Remove CR jobs that are no longer viable due to CW
-            if (curEvent.newCm) {
-                while (!crJobs.isEmpty()) { //Keep removing jobs from the CR heap until a viable one is found
-                    EtJob curCrJob = crJobs.peek();
-                    if (curEvent.t + curCrJob.getExecutionTimeMax() > cTime && !curCrJob.equals(cJob)) {
-                        crJobs.poll();
-                    } else {
-                        break;
-                    }
-                }
-                //Disable PR jobs due to critical time
-                for (int j = 0; j < prJobs.size(); j++) {
-                    EtJob curJob = prJobs.get(j);
-                    if (curJob.getExecutionTimeMax() + curEvent.t > cTime
-                            && prJobsStartTimes.get(j) != -1 && !curJob.equals(cJob)) {
-                        //curJob was active and now it needs to be deactivated because it violates critical time
-                        Node nextNode = curNode.expandNodeWithJob(curJob, prJobsStartTimes.get(j), curEvent.t-1);
-                        ret.add(nextNode);
-                        prJobsStartTimes.set(j,-1);
-                    }
-                }
+            if (appJobs[i] == cJob) {
+                cTask = i;
             }
-
-            //Add a new certainly released job if there is one
-            int newBestCrJobStartTime = -1;
-            if (curEvent.newCr != null) {
-                crJobs.addAll(curEvent.newCr); //Add new CR jobs
-                for (EtJob ej : curEvent.newCr) {
-                    if (prJobs.contains(ej)) {
-                        //Job ej was in prJobs and needs to be removed from it
-                        int jobIndex = prJobs.indexOf(ej);
-                        if (ej.equals(crJobs.peek())) {
-                            newBestCrJobStartTime = prJobsStartTimes.get(jobIndex);
-                        } else if (prJobsStartTimes.get(jobIndex) != -1) { //Job ej has been possibly-eligible and no longer is
-                            Node nextNode = curNode.expandNodeWithJob(ej, prJobsStartTimes.get(jobIndex), curEvent.t-1);
-                            ret.add(nextNode);
-                        }
-                        prJobs.remove(jobIndex);
-                        prJobsStartTimes.remove(jobIndex);
-                    }
-                }
-            }
-            if (newBestCrJobStartTime == -1) {
-                newBestCrJobStartTime = curEvent.t;
-            }
-            EtJob newBestCrJob = crJobs.peek();
-
-            //If the certainly released job changed, add a new node and activate/deactivate possibly released jobs
-            if (previousBestCr != newBestCrJob) {
-                //If this is not the first certainly-eligible job, create a new node (using the previous CE job)
-                if (previousBestCr != null) {
-                    Node nextNode = curNode.expandNodeWithJob(previousBestCr, ceJobStartTime, curEvent.t-1);
-                    ret.add(nextNode);
-                }
-                ceJobStartTime = newBestCrJobStartTime;
-
-                //Activate/deactivate PR jobs based on the new certainly-eligible job
-                for (int j = 0; j < prJobs.size(); j++) {
-                    EtJob curJob = prJobs.get(j);
-                    if ((newBestCrJob == null || curJob.compareTo(newBestCrJob) < 0) && (curEvent.t + curJob.getExecutionTimeMax() <= cTime || curJob.equals(cJob))) { //The PR job is better than the new CR job
-                        if (prJobsStartTimes.get(j) == -1) { //The job was deactivated and needs to be activated
-                            prJobsStartTimes.set(j,curEvent.t);
-                        }
-                    } else {
-                        if (prJobsStartTimes.get(j) != -1) { //The job was active and now it needs to be deactivated
-                            Node nextNode = curNode.expandNodeWithJob(curJob, prJobsStartTimes.get(j), curEvent.t-1);
-                            ret.add(nextNode);
-                            prJobsStartTimes.set(j,-1);
-                        }
-                    }
-                }
-            }
-
-            //Add new PR jobs
-            if (curEvent.newPr != null) {
-                for (EtJob ej : curEvent.newPr) {
-                    prJobs.add(ej);
-                    if (newBestCrJob == null || ej.compareTo(newBestCrJob) < 0) {
-                        prJobsStartTimes.add(curEvent.t);
-                    } else {
-                        prJobsStartTimes.add(-1);
-                    }
-                }
-            }
-
         }
-        return ret;
+        kernel.sweep(nodeMin, actualMax, cTask, cTime, sink);
     }
 
     /**
@@ -588,10 +685,14 @@ public class EtScheduleGraphTest {
      * @return if the Et tasks are schedulable under the given policy
      */
     public boolean generateGraphTest(boolean terminateAfterDeadlineMiss, SchedulingPolicy policy, boolean saveGraph) {
+        if (useNodeStore && !saveGraph) {
+            return generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy);
+        }
         ArrayList<Node> curLevelNodes = new ArrayList<>();
         HashMap<Node, ArrayList<Node>> nextLevelNodes = new HashMap<>();
 
-        Node root = new Node(0,0, new int[etJobs.length],null, false);
+        int[] rootTaskPeriods = new int[etJobs.length];
+        Node root = new Node(0,0, rootTaskPeriods, getHasher().hash(rootTaskPeriods, 0), null, false);
         root.id = 0;
         if (saveGraph) {
             this.rootNode = root;
@@ -599,7 +700,10 @@ public class EtScheduleGraphTest {
         curLevelNodes.add(root);
 
         boolean deadlineMissFound = false;
+        expandedLevels = 0;
+        lastReadTaskPeriods = null;
         while (!curLevelNodes.isEmpty()) {
+            expandedLevels++;
             //Expansion phase
             for (Node curNode : curLevelNodes) {
                 ArrayList<Node> curNodeChildren;
@@ -638,18 +742,19 @@ public class EtScheduleGraphTest {
             //Merging phase
             for (ArrayList<Node> sameFinishedJobsArray : nextLevelNodes.values()) {
                 sameFinishedJobsArray.sort(Comparator.comparingInt(Node::getMin));
-                for (int i = 1; i < sameFinishedJobsArray.size();) {
-                    Node leftNode = sameFinishedJobsArray.get(i-1);
+                //Sweep with a write cursor, merged nodes are kept at the start of the array and the rest is cut off
+                int write = 0;
+                for (int i = 1; i < sameFinishedJobsArray.size(); i++) {
+                    Node leftNode = sameFinishedJobsArray.get(write);
                     Node rightNode = sameFinishedJobsArray.get(i);
                     if (leftNode.max >= rightNode.min) {
                         leftNode.max = Math.max(leftNode.max,rightNode.max);
                         leftNode.mergeNodeWith(rightNode);
-                        sameFinishedJobsArray.remove(i);
                     } else {
-                        i++;
+                        sameFinishedJobsArray.set(++write, rightNode);
                     }
                 }
-                curLevelNodes.addAll(sameFinishedJobsArray);
+                curLevelNodes.addAll(sameFinishedJobsArray.subList(0, write + 1));
             }
 
             //Gives the merged nodes IDs and redirects/removes some edges
@@ -671,6 +776,745 @@ public class EtScheduleGraphTest {
         return !deadlineMissFound;
     }
 
+    /**
+     * Searches for a deadline miss depth first, without merging nodes. Children of a node are explored in
+     * the increasing order of their slack (see minSlack), so the schedules closest to a deadline miss are tried
+     * first. A node is not explored if a node with the same task periods and a finish time interval containing
+     * its interval was already explored, a wider interval allows at least the same schedules.
+     * Merging in the schedule graph only widens the finish time intervals, so a deadline miss found by this
+     * search is also found by generateGraphTest. The opposite does not hold, the search may miss a deadline miss
+     * which exists only because of merging.
+     * @param policy policy under which the schedule graph should be generated
+     * @param maxExpandedNodes maximal number of expanded nodes, 0 or less for no limit
+     * @return jobs in the order of their execution on a path from the root to a node which caused a deadline miss
+     * (the last job misses its deadline), or null if no deadline miss was found
+     */
+    public ArrayList<EtJob> findDeadlineMissWitness(SchedulingPolicy policy, long maxExpandedNodes) {
+        int[] rootTaskPeriods = new int[etJobs.length];
+        Node root = new Node(0,0, rootTaskPeriods, getHasher().hash(rootTaskPeriods, 0), null, false);
+        HashMap<Node, ArrayList<Node>> visited = new HashMap<>(); //Explored nodes grouped by task periods
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        long expandedNodes = 0;
+        while (!stack.isEmpty()) {
+            if (maxExpandedNodes > 0 && expandedNodes >= maxExpandedNodes) {
+                return null;
+            }
+            Node curNode = stack.pop();
+            ArrayList<Node> sameTaskPeriods = visited.computeIfAbsent(curNode, k -> new ArrayList<>());
+            boolean subsumed = false;
+            for (Node n : sameTaskPeriods) {
+                if (n.min <= curNode.min && curNode.max <= n.max) {
+                    subsumed = true;
+                    break;
+                }
+            }
+            if (subsumed) {
+                continue;
+            }
+            sameTaskPeriods.add(curNode);
+
+            ArrayList<Node> children = policy == SchedulingPolicy.EDFFP
+                    ? expansionPhaseEdffp(curNode) : expansionPhaseAnyPolicy(curNode, policy);
+            expandedNodes++;
+            for (Node child : children) {
+                if (child.causedDeadlineMiss) {
+                    return getPathJobs(child);
+                }
+            }
+            children.sort(Comparator.comparingInt((Node child) -> -minSlack(child)));
+            for (Node child : children) {
+                stack.push(child); //The child with the smallest slack is pushed last
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the smallest slack of the next jobs of all tasks if they were started at the latest finish time of
+     * the node (or at their release), the smaller the slack, the closer is the node to a deadline miss
+     */
+    private int minSlack(Node node) {
+        int ret = Integer.MAX_VALUE;
+        for (int i = 0; i < etJobs.length; i++) {
+            if (node.taskPeriods[i] != etJobs[i].size()) {
+                EtJob job = etJobs[i].get(node.taskPeriods[i]);
+                ret = Math.min(ret, job.getDeadline() - Math.max(node.max, job.getReleaseTimeMin()) - job.getExecutionTimeMax());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return jobs executed on the path from the root to the node, the first parent of every node is followed
+     */
+    private ArrayList<EtJob> getPathJobs(Node node) {
+        ArrayList<EtJob> ret = new ArrayList<>();
+        while (!node.parents.isEmpty()) {
+            Node parent = node.parents.get(0);
+            for (int i = 0; i < etJobs.length; i++) {
+                if (parent.taskPeriods[i] != node.taskPeriods[i]) {
+                    ret.add(etJobs[i].get(parent.taskPeriods[i]));
+                }
+            }
+            node = parent;
+        }
+        Collections.reverse(ret);
+        return ret;
+    }
+
+    /**
+     * Schedulability test which first searches for a deadline miss depth first (see findDeadlineMissWitness) and
+     * generates the schedule graph only if no deadline miss is found. The result is the same as the result of
+     * generateGraphTest, but non-schedulable instances are usually rejected much faster.
+     * @param policy policy under which the schedule graph should be generated
+     * @param maxExpandedNodes maximal number of nodes expanded by the depth first search, 0 or less for no limit.
+     *                         When no deadline miss is found, the expanded nodes are wasted work, so the limit
+     *                         should be small (a few times the number of jobs).
+     * @return if the Et tasks are schedulable under the given policy
+     */
+    public boolean generateGraphTestDepthFirst(SchedulingPolicy policy, long maxExpandedNodes) {
+        deadlineMissWitness = findDeadlineMissWitness(policy, maxExpandedNodes);
+        if (deadlineMissWitness != null) {
+            return false;
+        }
+        return generateGraphTest(true, policy, false);
+    }
+
+    /**
+     * @return jobs leading to a deadline miss found by the last call of generateGraphTestDepthFirst, the last job
+     * misses its deadline, null if the depth first search did not find a deadline miss
+     */
+    public ArrayList<EtJob> getDeadlineMissWitness() {
+        return deadlineMissWitness;
+    }
+
+    /**
+     * Generate a schedule graph for a given policy where each level is kept in a NodeStore.
+     * Only the current level and the next level are kept in memory and both stores are reused between levels.
+     * @param terminateAfterDeadlineMiss do not keep building the schedule graph if a deadline miss is found
+     * @param policy policy under which the schedule graph should be generated
+     * @return if the Et tasks are schedulable under the given policy
+     */
+    private boolean generateGraphTestNodeStore(boolean terminateAfterDeadlineMiss, SchedulingPolicy policy) {
+        if (useSegmentation && parallelism > 1 && !keepCheckpoints && !trackReadJobs) {
+            ArrayList<Window> segments = findSegments(parallelism * CHUNKS_PER_THREAD);
+            if (segments.size() > 1) {
+                Boolean verdict = generateGraphTestSegmented(terminateAfterDeadlineMiss, policy, segments);
+                if (verdict != null) {
+                    return verdict;
+                }
+            }
+        }
+        analysedSegments = 1;
+        try {
+            return generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy, null, null, 0, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //Cannot happen, nothing is written
+        }
+    }
+
+    /**
+     * Generate a part of the schedule graph which starts in a given state instead of the root node, for example to
+     * re-analyse only the window affected by a local change of the jobs. Nodes in the target state and nodes which
+     * cannot finish before the horizon are not expanded, they are kept as the frontier of the window
+     * (see getWindowFrontier). Nodes of the window are kept in node stores.
+     * @param startTaskPeriods task periods of the start node
+     * @param startMin earliest finish time of the start node
+     * @param startMax latest finish time of the start node
+     * @param horizon nodes whose earliest finish time is at or after the horizon are not expanded,
+     *                Integer.MAX_VALUE if the window should not be limited by time
+     * @param targetTaskPeriods nodes with these task periods are not expanded, null if there is no target state
+     * @param terminateAfterDeadlineMiss do not keep building the window if a deadline miss is found
+     * @param policy policy under which the schedule graph should be generated
+     * @return if no deadline miss was found in the window
+     */
+    public boolean generateGraphTestWindow(int[] startTaskPeriods, int startMin, int startMax, int horizon,
+                                           int[] targetTaskPeriods, boolean terminateAfterDeadlineMiss,
+                                           SchedulingPolicy policy) {
+        if (startTaskPeriods.length != etJobs.length
+                || (targetTaskPeriods != null && targetTaskPeriods.length != etJobs.length)) {
+            throw new IllegalArgumentException("Task periods must have " + etJobs.length + " elements");
+        }
+        if (startMin > startMax) {
+            throw new IllegalArgumentException("Start interval [" + startMin + "," + startMax + "] is empty");
+        }
+        Window window = new Window(startTaskPeriods.clone(), startMin, startMax,
+                targetTaskPeriods == null ? null : targetTaskPeriods.clone(), horizon, Integer.MAX_VALUE, true);
+        window.frontier = new ArrayList<>();
+        try {
+            generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy, null, window, 0, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //Cannot happen, nothing is written
+        }
+        windowFrontier = window.frontier;
+        return !window.deadlineMissFound;
+    }
+
+    /**
+     * @return nodes of the last window (see generateGraphTestWindow) which were not expanded because they reached
+     * the target state or the horizon, nodes which have no children are not included
+     */
+    public ArrayList<FrontierNode> getWindowFrontier() {
+        return windowFrontier;
+    }
+
+    /**
+     * Generate a schedule graph for a given policy and write it into a DOT file while it is being generated.
+     * Nodes and edges of every level are written as soon as the level is merged, so only the current level is kept
+     * in memory. The written graph is the same as the one written by saveGraphToFile after generateGraphTest with
+     * saveGraph set, only the order of the records differs.
+     * @param terminateAfterDeadlineMiss do not keep building the schedule graph if a deadline miss is found
+     * @param policy policy under which the schedule graph should be generated
+     * @param filepath path of the DOT file
+     * @param includeTaskPeriods if task periods should be included in node labels
+     * @param compress if the file should be gzip compressed
+     * @return if the Et tasks are schedulable under the given policy
+     */
+    public boolean generateGraphTestToFile(boolean terminateAfterDeadlineMiss, SchedulingPolicy policy, String filepath,
+                                           boolean includeTaskPeriods, boolean compress) throws IOException {
+        OutputStream os = new FileOutputStream(filepath);
+        if (compress) {
+            os = new GZIPOutputStream(os, 1 << 16);
+        }
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 16)) {
+            w.write("digraph {\n\n");
+            boolean ret = generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy,
+                    new GraphStreamWriter(w, includeTaskPeriods), null, 0, null);
+            w.write("\n}");
+            return ret;
+        }
+    }
+
+    /**
+     * Writes nodes and edges of a schedule graph kept in node stores
+     */
+    private class GraphStreamWriter {
+        final Writer w;
+        final boolean includeTaskPeriods;
+        final StringBuilder sb = new StringBuilder();
+
+        GraphStreamWriter(Writer w, boolean includeTaskPeriods) {
+            this.w = w;
+            this.includeTaskPeriods = includeTaskPeriods;
+        }
+
+        /**
+         * Writes all nodes of a level, node i gets the ID firstId+i
+         */
+        void writeLevel(NodeStore level, int firstId) throws IOException {
+            for (int i = 0; i < level.size; i++) {
+                sb.setLength(0);
+                appendNodeRecord(sb, firstId + i, level.min[i], level.max[i], level.taskPeriods, i * etJobs.length,
+                        includeTaskPeriods, level.causedDeadlineMiss(i));
+                w.write(sb.toString());
+            }
+        }
+
+        /**
+         * Writes an edge for every node of an expanded level, the edge leads from its parent to the merged node
+         * into which it was merged
+         * @param expandedLevel level before merging (mergeInto must have been called on it)
+         * @param firstParentId ID of the first node of the parent level
+         * @param firstMergedId ID of the first node of the merged level
+         */
+        void writeEdges(NodeStore expandedLevel, int firstParentId, int firstMergedId) throws IOException {
+            for (int i = 0; i < expandedLevel.size; i++) {
+                int task = expandedLevel.task[i];
+                EtJob job = etJobs[task].get(expandedLevel.taskPeriods[i * etJobs.length + task] - 1);
+                sb.setLength(0);
+                appendEdgeRecord(sb, firstParentId + expandedLevel.parent[i],
+                        firstMergedId + expandedLevel.mergedOffset(i), job);
+                w.write(sb.toString());
+            }
+        }
+    }
+
+    /**
+     * Generate a schedule graph with levels kept in node stores
+     * @param graphWriter writer of the graph, null if the graph should not be written
+     * @param window part of the graph which should be generated, null for the whole graph from the root node.
+     *               Results of the window are stored in it and the returned value should be ignored.
+     * @param firstLevel checkpoint of the last graph from which the graph is resumed, 0 to start from the root node
+     * @param unreadJobs the graph is generated only until the expansion of a level would read any of these jobs,
+     *                   null to generate the whole graph
+     */
+    private boolean generateGraphTestNodeStore(boolean terminateAfterDeadlineMiss, SchedulingPolicy policy,
+                                               GraphStreamWriter graphWriter, Window window, int firstLevel,
+                                               JobSet unreadJobs) throws IOException {
+        NodeStore curLevel = new NodeStore(etJobs.length, 64, getHasher());
+        NodeStore nextLevel = new NodeStore(etJobs.length, 64, getHasher());
+        boolean checkpointing = keepCheckpoints && window == null && graphWriter == null;
+        if (firstLevel > 0) {
+            curLevel.appendAll(checkpoints.get(firstLevel));
+        } else if (window == null) {
+            curLevel.add(0, 0, new int[etJobs.length], false, -1);
+        } else {
+            curLevel.add(window.startMin, window.startMax, window.startTaskPeriods, false, -1);
+        }
+        NodeStoreSink sink = new NodeStoreSink();
+        sink.parentLevel = curLevel;
+        sink.childLevel = nextLevel;
+        ForkJoinPool pool = parallelism > 1 && (window == null || window.expandInParallel)
+                ? new ForkJoinPool(parallelism) : null;
+        //A written graph must contain the whole level with the deadline miss, so the expansion is not cancelled
+        ParallelLevelExpansion parallelExpansion = pool != null
+                ? new ParallelLevelExpansion(pool, policy, terminateAfterDeadlineMiss && graphWriter == null) : null;
+        int curLevelFirstId = 0;
+        if (window == null) {
+            nextNodeId = 1;
+        } else if (!acceptWindowLevel(curLevel, window)) {
+            return false;
+        }
+        if (graphWriter != null) {
+            graphWriter.writeLevel(curLevel, curLevelFirstId);
+        }
+        int level = firstLevel;
+        //Jobs read by the expansions of the previous levels (see getLastUnaffectedLevel)
+        int[] readTaskPeriods = firstLevel > 0 ? checkpointMaxTaskPeriods.get(firstLevel) : new int[etJobs.length];
+        int readHorizon = firstLevel > 0 ? checkpointHorizons[firstLevel] : Integer.MIN_VALUE;
+        boolean trackReads = checkpointing || unreadJobs != null || trackReadJobs;
+        lastReadTaskPeriods = trackReads ? readTaskPeriods : null;
+        lastReadHorizon = readHorizon;
+        if (checkpointing) {
+            if (firstLevel == 0) {
+                checkpointPolicy = policy;
+                saveCheckpoint(0, curLevel, readTaskPeriods, readHorizon, false);
+            }
+            checkpointCount = level + 1;
+        }
+        expandedLevels = 0;
+
+        try {
+            boolean deadlineMissFound = firstLevel > 0 && checkpointDeadlineMisses[firstLevel];
+            if (terminateAfterDeadlineMiss && deadlineMissFound) {
+                return false;
+            }
+            while (curLevel.size > 0) {
+                if (window != null && window.cancel.get()) {
+                    return false;
+                }
+                if (trackReads) {
+                    //Add jobs read by the expansion of this level, they are stored with the checkpoint of the next level
+                    readTaskPeriods = readTaskPeriods.clone();
+                    for (int i = 0; i < curLevel.size; i++) {
+                        for (int j = 0; j < etJobs.length; j++) {
+                            readTaskPeriods[j] = Math.max(readTaskPeriods[j], curLevel.taskPeriods[i * etJobs.length + j]);
+                        }
+                        if (policy == SchedulingPolicy.EDFFP) {
+                            readHorizon = Math.max(readHorizon, edffpExpansionEnd(curLevel, i));
+                        }
+                    }
+                    if (unreadJobs != null && unreadJobs.anyRead(readTaskPeriods, readHorizon, policy)) {
+                        return !deadlineMissFound;
+                    }
+                    lastReadTaskPeriods = readTaskPeriods;
+                    lastReadHorizon = readHorizon;
+                }
+                expandedLevels++;
+                //Expansion phase
+                if (parallelExpansion != null && curLevel.size >= minParallelLevelSize) {
+                    if (parallelExpansion.expandLevel(curLevel, nextLevel)) {
+                        deadlineMissFound = true;
+                    }
+                } else {
+                    expandRange(sink, 0, curLevel.size, policy, null);
+                    if (nextLevel.anyDeadlineMiss()) {
+                        deadlineMissFound = true;
+                    }
+                }
+                if (window != null) {
+                    window.deadlineMissFound = deadlineMissFound;
+                }
+                if (terminateAfterDeadlineMiss && deadlineMissFound && graphWriter == null) {
+                    return false;
+                }
+
+                //Merging phase, the merged nodes become the current level
+                curLevel.clear();
+                nextLevel.mergeInto(curLevel, pool, minParallelLevelSize);
+                if (graphWriter != null) {
+                    graphWriter.writeLevel(curLevel, nextNodeId);
+                    graphWriter.writeEdges(nextLevel, curLevelFirstId, nextNodeId);
+                }
+                if (window == null) {
+                    curLevelFirstId = nextNodeId;
+                    nextNodeId += curLevel.size;
+                }
+                nextLevel.clear();
+
+                if (terminateAfterDeadlineMiss && deadlineMissFound) {
+                    return false;
+                }
+                if (window != null && !acceptWindowLevel(curLevel, window)) {
+                    return false;
+                }
+                level++;
+                if (checkpointing) {
+                    saveCheckpoint(level, curLevel, readTaskPeriods, readHorizon, deadlineMissFound);
+                    checkpointCount = level + 1;
+                }
+            }
+            return !deadlineMissFound;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Stores a copy of a level of the graph as its checkpoint
+     * @param maxTaskPeriods maximal task periods of the nodes in the previous levels
+     * @param horizon latest EDF-FP expansion end of the nodes in the previous levels
+     * @param deadlineMissFound if any node in this or the previous levels caused a deadline miss
+     */
+    private void saveCheckpoint(int level, NodeStore nodes, int[] maxTaskPeriods, int horizon, boolean deadlineMissFound) {
+        if (checkpoints.size() <= level) {
+            checkpoints.add(new NodeStore(etJobs.length, Math.max(nodes.size, 1), getHasher()));
+            checkpointMaxTaskPeriods.add(null);
+        }
+        if (checkpointHorizons.length <= level) {
+            checkpointHorizons = Arrays.copyOf(checkpointHorizons, 2 * checkpointHorizons.length);
+            checkpointDeadlineMisses = Arrays.copyOf(checkpointDeadlineMisses, 2 * checkpointDeadlineMisses.length);
+        }
+        NodeStore checkpoint = checkpoints.get(level);
+        checkpoint.clear();
+        checkpoint.appendAll(nodes);
+        checkpointMaxTaskPeriods.set(level, maxTaskPeriods);
+        checkpointHorizons[level] = horizon;
+        checkpointDeadlineMisses[level] = deadlineMissFound;
+    }
+
+    /**
+     * Computes the latest time up to which the EDF-FP expansion of a node considers releases of jobs. Jobs which are
+     * released later than that are not read by the expansion, except for their task periods.
+     */
+    private int edffpExpansionEnd(NodeStore level, int node) {
+        int earliestCrTime = Integer.MAX_VALUE;
+        for (int i = 0; i < etJobs.length; i++) {
+            int curTaskPeriod = level.taskPeriods[node * etJobs.length + i];
+            if (etJobs[i].size() != curTaskPeriod) {
+                earliestCrTime = Math.min(earliestCrTime, etJobs[i].get(curTaskPeriod).getReleaseTimeMax());
+            }
+        }
+        return earliestCrTime == Integer.MAX_VALUE ? Integer.MIN_VALUE : Math.max(earliestCrTime, level.max[node]);
+    }
+
+    /**
+     * Finds the last checkpoint of the last graph which does not depend on the given changed jobs, i.e. no changed
+     * job was read by the expansion of the levels before it (see JobSet.anyRead).
+     * @param tasks tasks of the changed jobs
+     * @param periods periods (repetitions) of the changed jobs
+     * @param earliestReleases the earlier of the old and the new earliest release time of each changed job
+     * @param jobCount number of changed jobs
+     * @param policy policy under which the graph will be resumed
+     * @return level from which the graph can be resumed by generateGraphTestResumed, 0 if it has to start from the root
+     */
+    public int getLastUnaffectedLevel(int[] tasks, int[] periods, int[] earliestReleases, int jobCount,
+                                      SchedulingPolicy policy) {
+        if (policy != checkpointPolicy) {
+            return 0;
+        }
+        JobSet changedJobs = new JobSet(tasks, periods, earliestReleases, jobCount);
+        int level = 0;
+        while (level + 1 < checkpointCount
+                && !changedJobs.anyRead(checkpointMaxTaskPeriods.get(level + 1), checkpointHorizons[level + 1], policy)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Jobs identified by their tasks and periods (repetitions)
+     */
+    private static class JobSet {
+        final int[] tasks;
+        final int[] periods;
+        final int[] earliestReleases; //Earliest release time each job can have
+        final int count;
+
+        JobSet(int[] tasks, int[] periods, int[] earliestReleases, int count) {
+            this.tasks = tasks;
+            this.periods = periods;
+            this.earliestReleases = earliestReleases;
+            this.count = count;
+        }
+
+        /**
+         * A job may be read by the expansion of a node only if it is the next job of its task in that node. Under
+         * EDF-FP, the job is not read even then if it cannot be released before the expansion end of the node
+         * (see edffpExpansionEnd), only its task period is.
+         * @param maxTaskPeriods maximal task periods of the expanded nodes
+         * @param horizon latest EDF-FP expansion end of the expanded nodes
+         * @return if any job of the set may be read by the expansions
+         */
+        boolean anyRead(int[] maxTaskPeriods, int horizon, SchedulingPolicy policy) {
+            for (int i = 0; i < count; i++) {
+                if (maxTaskPeriods[tasks[i]] >= periods[i]
+                        && (policy != SchedulingPolicy.EDFFP || earliestReleases[i] <= horizon)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Resumes the last graph from a checkpoint (see setKeepCheckpoints and getLastUnaffectedLevel) instead of
+     * generating the whole graph from the root node. Levels after the checkpoint are generated again and replace the
+     * old checkpoints.
+     * @param level level of the checkpoint
+     * @param terminateAfterDeadlineMiss do not keep building the schedule graph if a deadline miss is found
+     * @param policy policy under which the schedule graph should be generated
+     * @return if the Et tasks are schedulable under the given policy
+     */
+    public boolean generateGraphTestResumed(int level, boolean terminateAfterDeadlineMiss, SchedulingPolicy policy) {
+        if (level < 0 || (level > 0 && (level >= checkpointCount || policy != checkpointPolicy))) {
+            throw new IllegalArgumentException("There is no checkpoint of level " + level + " for policy " + policy);
+        }
+        analysedSegments = 1;
+        try {
+            return generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy, null, null, level, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //Cannot happen, nothing is written
+        }
+    }
+
+    /**
+     * Generates the graph only as long as the expansions do not read any of the given jobs (see
+     * getLastUnaffectedLevel), the generated levels therefore do not depend on the parameters of these jobs.
+     * The graph is resumed from a checkpoint of the last graph and its levels are checkpointed if
+     * setKeepCheckpoints is set.
+     * @param level level of the checkpoint from which the graph is resumed, 0 to start from the root node
+     * @param tasks tasks of the jobs which must not be read
+     * @param periods periods (repetitions) of the jobs which must not be read
+     * @param earliestReleases earliest release time each of the jobs can have
+     * @param jobCount number of the jobs which must not be read
+     * @param policy policy under which the schedule graph should be generated
+     * @return false if a deadline miss was found in the generated levels, it is found regardless of the parameters
+     * of the given jobs
+     */
+    public boolean generateGraphTestUntilRead(int level, int[] tasks, int[] periods, int[] earliestReleases,
+                                              int jobCount, SchedulingPolicy policy) {
+        if (level < 0 || (level > 0 && (level >= checkpointCount || policy != checkpointPolicy))) {
+            throw new IllegalArgumentException("There is no checkpoint of level " + level + " for policy " + policy);
+        }
+        analysedSegments = 1;
+        try {
+            return generateGraphTestNodeStore(true, policy, null, null, level,
+                    new JobSet(tasks, periods, earliestReleases, jobCount));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); //Cannot happen, nothing is written
+        }
+    }
+
+    /**
+     * Part of the schedule graph which starts in a given state and ends in a target state or at a horizon
+     */
+    private static class Window {
+        final int[] startTaskPeriods;
+        final int startMin;
+        final int startMax;
+        final int[] targetTaskPeriods; //Nodes with these task periods are not expanded, null if there is no target
+        final int horizon; //Nodes which cannot finish before the horizon are not expanded
+        final int bound; //Nodes must not finish later than the bound nor finish jobs not finished in the target,
+                         //Integer.MAX_VALUE if the window is not bounded
+        final boolean expandInParallel; //If large levels of the window may be expanded by parallelism threads
+        final AtomicBoolean cancel = new AtomicBoolean(false);
+
+        boolean deadlineMissFound = false;
+        boolean boundViolated = false;
+        ArrayList<FrontierNode> frontier; //Nodes which were not expanded, null if they should not be kept
+
+        Window(int[] startTaskPeriods, int startMin, int startMax, int[] targetTaskPeriods, int horizon, int bound,
+               boolean expandInParallel) {
+            this.startTaskPeriods = startTaskPeriods;
+            this.startMin = startMin;
+            this.startMax = startMax;
+            this.targetTaskPeriods = targetTaskPeriods;
+            this.horizon = horizon;
+            this.bound = bound;
+            this.expandInParallel = expandInParallel;
+        }
+    }
+
+    /**
+     * Node at which the generation of a window of the schedule graph stopped
+     */
+    public static class FrontierNode {
+        private final int min; //earliest finish time
+        private final int max; //latest finish time
+        private final int[] taskPeriods;
+        private final boolean causedDeadlineMiss;
+
+        FrontierNode(int min, int max, int[] taskPeriods, boolean causedDeadlineMiss) {
+            this.min = min;
+            this.max = max;
+            this.taskPeriods = taskPeriods;
+            this.causedDeadlineMiss = causedDeadlineMiss;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public int[] getTaskPeriods() {
+            return taskPeriods;
+        }
+
+        public boolean causedDeadlineMiss() {
+            return causedDeadlineMiss;
+        }
+    }
+
+    /**
+     * Checks the merged nodes of a level of a window and removes nodes in the target state and nodes beyond the
+     * horizon from the level
+     * @return false if the bound of the window is violated
+     */
+    private boolean acceptWindowLevel(NodeStore level, Window window) {
+        int kept = 0;
+        for (int i = 0; i < level.size; i++) {
+            int offset = i * etJobs.length;
+            if (level.max[i] > window.bound) {
+                window.boundViolated = true;
+                return false;
+            }
+            boolean isTarget = window.targetTaskPeriods != null;
+            if (window.targetTaskPeriods != null) {
+                for (int j = 0; j < etJobs.length; j++) {
+                    int period = level.taskPeriods[offset + j];
+                    if (period > window.targetTaskPeriods[j] && window.bound != Integer.MAX_VALUE) {
+                        window.boundViolated = true;
+                        return false;
+                    }
+                    isTarget &= period == window.targetTaskPeriods[j];
+                }
+            }
+            if (isTarget || level.min[i] >= window.horizon) {
+                if (window.frontier != null) {
+                    window.frontier.add(new FrontierNode(level.min[i], level.max[i],
+                            Arrays.copyOfRange(level.taskPeriods, offset, offset + etJobs.length),
+                            level.causedDeadlineMiss(i)));
+                }
+            } else {
+                level.moveNode(i, kept++);
+            }
+        }
+        level.truncate(kept);
+        return true;
+    }
+
+    /**
+     * Splits the hyperperiod at synchronisation points. A time T is a synchronisation point if every job which can
+     * be released before T is guaranteed to finish by T and no other job can be released before T. The schedule
+     * after T then does not depend on the schedule before T, so the segments between synchronisation points can be
+     * analysed independently, each one starting from the state in which all jobs of previous segments are finished
+     * at T.
+     * Jobs released before T finish by T if their busy window, bounded by executing them in the order of their
+     * earliest release times with the latest release times and the longest execution times, ends by T. The bound
+     * holds for work-conserving policies, the segments of other policies are checked during their analysis.
+     * @param maxSegments maximal number of segments, segments with less than 1/maxSegments of all jobs are joined
+     * @return windows of the segments in time order, a single window if the hyperperiod cannot be split
+     */
+    ArrayList<Window> findSegments(int maxSegments) {
+        int[] jobCounts = new int[etJobs.length];
+        ArrayList<EtJob> jobs = new ArrayList<>();
+        boolean ordered = true; //Jobs released before a point must be a prefix of the jobs of their task
+        for (int i = 0; i < etJobs.length; i++) {
+            jobCounts[i] = etJobs[i].size();
+            for (int j = 1; j < etJobs[i].size(); j++) {
+                ordered &= etJobs[i].get(j).getReleaseTimeMin() >= etJobs[i].get(j - 1).getReleaseTimeMin();
+            }
+            jobs.addAll(etJobs[i]);
+        }
+        if (!ordered) {
+            jobs.clear();
+        }
+        jobs.sort(Comparator.comparingInt(EtJob::getReleaseTimeMin));
+        int minSegmentJobs = Math.max(1, jobs.size() / maxSegments);
+
+        ArrayList<Window> segments = new ArrayList<>();
+        int[] taskPeriods = new int[etJobs.length];
+        int[] segmentStartTaskPeriods = new int[etJobs.length];
+        int segmentStart = 0;
+        int segmentJobs = 0;
+        long busyWindowEnd = Long.MIN_VALUE;
+        for (int i = 0; i < jobs.size() - 1; i++) {
+            EtJob job = jobs.get(i);
+            busyWindowEnd = Math.max(busyWindowEnd, job.getReleaseTimeMax()) + job.getExecutionTimeMax();
+            taskPeriods[job.getTaskId()]++;
+            segmentJobs++;
+            int nextRelease = jobs.get(i + 1).getReleaseTimeMin();
+            if (nextRelease > job.getReleaseTimeMin() && busyWindowEnd <= nextRelease
+                    && segmentJobs >= minSegmentJobs && jobs.size() - i - 1 >= minSegmentJobs) {
+                segments.add(new Window(segmentStartTaskPeriods, segmentStart, segmentStart, taskPeriods.clone(),
+                        Integer.MAX_VALUE, nextRelease, false));
+                segmentStartTaskPeriods = taskPeriods.clone();
+                segmentStart = nextRelease;
+                segmentJobs = 0;
+            }
+        }
+        segments.add(new Window(segmentStartTaskPeriods, segmentStart, segmentStart, jobCounts, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, false));
+        return segments;
+    }
+
+    /**
+     * Analyses the segments of the hyperperiod concurrently
+     * @param segments windows of the segments in time order (see findSegments)
+     * @return if the Et tasks are schedulable under the given policy, null if any segment violated its bound, so
+     * the hyperperiod must be analysed as a whole
+     */
+    private Boolean generateGraphTestSegmented(boolean terminateAfterDeadlineMiss, SchedulingPolicy policy,
+                                               ArrayList<Window> segments) {
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            Window segment = segments.get(s);
+            int segmentIndex = s;
+            tasks.add(() -> {
+                generateGraphTestNodeStore(terminateAfterDeadlineMiss, policy, null, segment, 0, null);
+                if (segment.boundViolated) {
+                    segments.forEach(w -> w.cancel.set(true));
+                } else if (segment.deadlineMissFound && terminateAfterDeadlineMiss) {
+                    //The deadline miss is valid if no earlier segment violates its bound, later segments do not matter
+                    for (int i = segmentIndex + 1; i < segments.size(); i++) {
+                        segments.get(i).cancel.set(true);
+                    }
+                }
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        boolean deadlineMissFound = false;
+        for (Window segment : segments) {
+            if (segment.boundViolated) {
+                return null;
+            }
+            deadlineMissFound |= segment.deadlineMissFound;
+        }
+        analysedSegments = segments.size();
+        return !deadlineMissFound;
+    }
+
     public void saveGraphToFile(String filepath, boolean includeTaskPeriods) throws IOException {
         FileWriter fw = new FileWriter(filepath);
         fw.write("digraph {\n\n");
@@ -683,20 +1527,10 @@ public class EtScheduleGraphTest {
             if (curNode == null) {
                 continue;
             }
-            String label = "S" + curNode.id;
-            String nodeRecord = label + "[label=\"" + label + ": [" + curNode.min + ", " + curNode.max + "]\\n";
-            StringBuilder nodeTaskRecord = new StringBuilder();
-            if (includeTaskPeriods) {
-                nodeTaskRecord = new StringBuilder("[");
-                for (int i = 0; i < curNode.taskPeriods.length; i++) {
-                    nodeTaskRecord.append(curNode.taskPeriods[i]);
-                    if (i != curNode.taskPeriods.length-1) {
-                        nodeTaskRecord.append(',');
-                    }
-                }
-                nodeTaskRecord.append("]");
-            }
-            fw.write(nodeRecord + nodeTaskRecord.toString() + "\"" + (curNode.causedDeadlineMiss ? ",color=Red" : "") + "];\n");
+            StringBuilder record = new StringBuilder();
+            appendNodeRecord(record, curNode.id, curNode.min, curNode.max, curNode.taskPeriods, 0,
+                    includeTaskPeriods, curNode.causedDeadlineMiss);
+            fw.write(record.toString());
 
             //Write all next edges
             if (curNode.children == null) {
@@ -709,15 +1543,9 @@ public class EtScheduleGraphTest {
                         actuallyPickedJob = etJobs[i].get(curNode.taskPeriods[i]);
                     }
                 }
-                fw.write(label + " -> S" + nn.id +
-                        "[label=\"T" + actuallyPickedJob.getTaskId() + " J" + actuallyPickedJob.getRepetition() + "\\n"
-                        + "D=" + actuallyPickedJob.getDeadline() + "\\n"
-                        + "R=" + actuallyPickedJob.getReleaseTimeMin() + "|" + actuallyPickedJob.getReleaseTimeMax() + "\\n"
-                        + "C=" + actuallyPickedJob.getExecutionTimeMin() + "|" + actuallyPickedJob.getExecutionTimeMax() + "\\n"
-                        + "P=" + actuallyPickedJob.getPriority() + "\\n"
-                        + "\""
-                        + ", fontsize=6"
-                        + "];\n");
+                record.setLength(0);
+                appendEdgeRecord(record, curNode.id, nn.id, actuallyPickedJob);
+                fw.write(record.toString());
                 if (queue.stream().noneMatch(node -> node.id == nn.id)) {
                     queue.add(nn);
                 }
@@ -727,4 +1555,34 @@ public class EtScheduleGraphTest {
         fw.close();
     }
 
-}
\ No newline at end of file
+
+    private void appendNodeRecord(StringBuilder sb, int id, int min, int max, int[] taskPeriods, int periodsOffset,
+                                  boolean includeTaskPeriods, boolean causedDeadlineMiss) {
+        String label = "S" + id;
+        sb.append(label).append("[label=\"").append(label).append(": [").append(min).append(", ").append(max).append("]\\n");
+        if (includeTaskPeriods) {
+            sb.append('[');
+            for (int i = 0; i < etJobs.length; i++) {
+                sb.append(taskPeriods[periodsOffset + i]);
+                if (i != etJobs.length-1) {
+                    sb.append(',');
+                }
+            }
+            sb.append(']');
+        }
+        sb.append('"').append(causedDeadlineMiss ? ",color=Red" : "").append("];\n");
+    }
+
+    private static void appendEdgeRecord(StringBuilder sb, int fromId, int toId, EtJob job) {
+        sb.append("S").append(fromId).append(" -> S").append(toId)
+                .append("[label=\"T").append(job.getTaskId()).append(" J").append(job.getRepetition()).append("\\n")
+                .append("D=").append(job.getDeadline()).append("\\n")
+                .append("R=").append(job.getReleaseTimeMin()).append("|").append(job.getReleaseTimeMax()).append("\\n")
+                .append("C=").append(job.getExecutionTimeMin()).append("|").append(job.getExecutionTimeMax()).append("\\n")
+                .append("P=").append(job.getPriority()).append("\\n")
+                .append("\"")
+                .append(", fontsize=6")
+                .append("];\n");
+    }
+
+}
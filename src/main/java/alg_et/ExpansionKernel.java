@@ -0,0 +1,476 @@
+package alg_et;
+
+import model.EtJob;
+import model.SchedulingPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space and event sweep of the expansion phase for policies with a critical time.
+ * All arrays are allocated once for a given number of tasks, so expanding a node does not allocate anything.
+ * A kernel is not thread safe, every thread needs its own kernel.
+ * Jobs are identified by the index of their task (position in appJobs).
+ * The critical job of each policy is found by a dedicated method, CW keeps its deadline order between expansions.
+ */
+class ExpansionKernel {
+
+    private static final int EVENT_CM = 0; //A job may no longer be eligible due to the critical time
+    private static final int EVENT_CR = 1; //A job becomes certainly released
+    private static final int EVENT_PR = 2; //A job becomes possibly released
+
+    final int taskCount;
+    final EtJob[] appJobs; //Applicable job of each task, null if the task has no jobs left
+
+    //Events encoded as (time << 32) | (type << 24) | task, sorting the keys orders events by time, type and task
+    private final long[] events;
+    private int eventCount;
+
+    //Critical job and critical time found by the last call of findCriticalJob
+    int cTask;
+    int cTime;
+
+    //Tasks ordered by the deadline of their applicable job (descending, ties by descending task ID, tasks without
+    //applicable jobs at the end). The order is kept between expansions, nodes expanded one after another usually
+    //differ in a few jobs, so the order only needs a few swaps to be repaired.
+    private final int[] deadlineOrder;
+    private final long[] deadlineKeys; //Sort key of each task
+
+    private final JobHeap crJobs; //Certainly released jobs which do not violate critical time
+
+    //Possibly released jobs in the order in which they were released
+    private final int[] prTasks;
+    private final int[] prStartTimes; //Time when the job became possibly eligible, -1 if it is not possibly eligible
+    private int prCount;
+
+    ExpansionKernel(int taskCount) {
+        this.taskCount = taskCount;
+        this.appJobs = new EtJob[taskCount];
+        this.events = new long[3 * taskCount + 1];
+        this.crJobs = new JobHeap(taskCount + 1);
+        this.prTasks = new int[taskCount];
+        this.prStartTimes = new int[taskCount];
+        this.deadlineOrder = new int[taskCount];
+        this.deadlineKeys = new long[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            deadlineOrder[i] = i;
+            deadlineKeys[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Fills appJobs with the applicable jobs of a node
+     * @param etJobs jobs of every task
+     * @param taskPeriods array containing the task periods of the node
+     * @param periodsOffset index at which the task periods of the node start in taskPeriods
+     * @return if there is at least one applicable job
+     */
+    boolean loadAppJobs(ArrayList<EtJob>[] etJobs, int[] taskPeriods, int periodsOffset) {
+        boolean ret = false;
+        for (int i = 0; i < taskCount; i++) {
+            int curTaskPeriod = taskPeriods[periodsOffset + i];
+            if (etJobs[i].size() != curTaskPeriod) {
+                appJobs[i] = etJobs[i].get(curTaskPeriod);
+                ret = true;
+            } else {
+                appJobs[i] = null;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the critical job (cTask) and the critical time (cTime) of the applicable jobs in appJobs,
+     * at least one job must be applicable
+     */
+    void findCriticalJob(SchedulingPolicy policy) {
+        switch (policy) {
+            case EDFFP: criticalJobEdffp(); break;
+            case PRM: criticalJobPrm(); break;
+            case CP: criticalJobCp(); break;
+            case CW: criticalJobCw(); break;
+        }
+    }
+
+    /**
+     * EDF-FP has no critical time, any job is the critical job
+     */
+    private void criticalJobEdffp() {
+        cTime = Integer.MAX_VALUE;
+        cTask = 0;
+        while (appJobs[cTask] == null) {
+            cTask++;
+        }
+    }
+
+    /**
+     * The critical job is the job with priority 0 with the shortest maximal execution time, the critical time is the
+     * latest time it can start. If there is no such job, there is no critical time.
+     */
+    private void criticalJobPrm() {
+        criticalJobEdffp();
+        int bestTask = -1;
+        for (int i = 0; i < taskCount; i++) {
+            EtJob curJob = appJobs[i];
+            if (curJob == null || curJob.getPriority() != 0) {
+                continue;
+            }
+            if (bestTask == -1) {
+                bestTask = i;
+                continue;
+            }
+            EtJob bestJob = appJobs[bestTask];
+            if (bestJob.getExecutionTimeMax() > curJob.getExecutionTimeMax()
+                    || (bestJob.getExecutionTimeMax() == curJob.getExecutionTimeMax() && bestJob.getTaskId() > curJob.getTaskId())) {
+                bestTask = i;
+            }
+        }
+        if (bestTask != -1) {
+            cTask = bestTask;
+            cTime = appJobs[bestTask].getDeadline() - appJobs[bestTask].getExecutionTimeMax();
+        }
+    }
+
+    /**
+     * The critical job is the job with the earliest deadline, the critical time is the latest time it can start
+     */
+    private void criticalJobCp() {
+        cTask = -1;
+        for (int i = 0; i < taskCount; i++) {
+            EtJob curJob = appJobs[i];
+            if (curJob == null) {
+                continue;
+            }
+            if (cTask == -1) {
+                cTask = i;
+                continue;
+            }
+            EtJob bestJob = appJobs[cTask];
+            if (bestJob.getDeadline() > curJob.getDeadline()
+                    || (bestJob.getDeadline() == curJob.getDeadline() && bestJob.getTaskId() > curJob.getTaskId())) {
+                cTask = i;
+            }
+        }
+        cTime = appJobs[cTask].getDeadline() - appJobs[cTask].getExecutionTimeMax();
+    }
+
+    /**
+     * The critical job is the job with the earliest deadline, the critical time is the latest time at which it can
+     * start if all applicable jobs were executed as late as possible in the order of their deadlines (the critical
+     * window). The jobs are visited in the deadline order which is repaired by an insertion sort.
+     */
+    private void criticalJobCw() {
+        for (int i = 0; i < taskCount; i++) {
+            EtJob curJob = appJobs[i];
+            deadlineKeys[i] = curJob == null ? Long.MIN_VALUE
+                    : ((long) curJob.getDeadline() << 32) | (curJob.getTaskId() & 0xFFFFFFFFL);
+        }
+        for (int i = 1; i < taskCount; i++) { //Insertion sort, descending
+            int task = deadlineOrder[i];
+            long key = deadlineKeys[task];
+            int j = i - 1;
+            while (j >= 0 && deadlineKeys[deadlineOrder[j]] < key) {
+                deadlineOrder[j + 1] = deadlineOrder[j];
+                j--;
+            }
+            deadlineOrder[j + 1] = task;
+        }
+        int cwTime = Integer.MAX_VALUE;
+        for (int i = 0; i < taskCount && appJobs[deadlineOrder[i]] != null; i++) {
+            cTask = deadlineOrder[i];
+            EtJob cJob = appJobs[cTask];
+            if (cJob.getDeadline() < cwTime) {
+                cwTime = cJob.getDeadline() - cJob.getExecutionTimeMax();
+            } else {
+                cwTime -= cJob.getExecutionTimeMax();
+            }
+        }
+        cTime = cwTime;
+    }
+
+    /**
+     * Sets every applicable job to null
+     */
+    void clearAppJobs() {
+        Arrays.fill(appJobs, null);
+    }
+
+    private void addEvent(int t, int type, int task) {
+        events[eventCount++] = ((long) t << 32) | ((long) type << 24) | task;
+    }
+
+    /**
+     * Compares jobs of two tasks by the EDF-FP priority, the task taskCount is the finishing job which is better
+     * than any other job
+     */
+    private boolean isBetter(int task, int otherTask) {
+        if (task == taskCount) {
+            return otherTask != taskCount;
+        }
+        if (otherTask == taskCount) {
+            return false;
+        }
+        return appJobs[task].compareTo(appJobs[otherTask]) < 0;
+    }
+
+    private int prIndexOf(int task) {
+        for (int j = 0; j < prCount; j++) {
+            if (prTasks[j] == task) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private void removePr(int index) {
+        System.arraycopy(prTasks, index + 1, prTasks, index, prCount - index - 1);
+        System.arraycopy(prStartTimes, index + 1, prStartTimes, index, prCount - index - 1);
+        prCount--;
+    }
+
+    /**
+     * Goes through the events of a node with the applicable jobs in appJobs and creates its children.
+     * An event is any time where a job becomes certainly or possibly released or may no longer be eligible due to
+     * the critical time.
+     * @param nodeMin earliest finish time of the expanded node
+     * @param actualMax time after which no new job can start
+     * @param cTask task of the critical job
+     * @param cTime critical time
+     * @param sink receiver of the created children
+     */
+    void sweep(int nodeMin, int actualMax, int cTask, int cTime, EtScheduleGraphTest.ExpansionSink sink) {
+        //Create the events
+        eventCount = 0;
+        for (int i = 0; i < taskCount; i++) {
+            EtJob curJob = appJobs[i];
+            if (curJob == null) {
+                continue;
+            }
+
+            int actualPr = Math.max(nodeMin, curJob.getReleaseTimeMin());
+            int actualCr = Math.max(nodeMin, curJob.getReleaseTimeMax());
+            if (actualPr + curJob.getExecutionTimeMax() > cTime && i != cTask) {
+                continue;
+            }
+
+            //Adding PR event (PR event will not be added if CR is at the same time)
+            if (actualPr != actualCr && actualPr <= actualMax) {
+                addEvent(actualPr, EVENT_PR, i);
+            }
+
+            //Adding CR event (cannot be added if it violates critical time at its max release)
+            if (actualCr <= actualMax && (curJob.getReleaseTimeMax() + curJob.getExecutionTimeMax() <= cTime || i == cTask)) {
+                addEvent(actualCr, EVENT_CR, i);
+            }
+
+            //Adding CM (can be added only if it is within node range)
+            int actualCm = Math.max(nodeMin, cTime - curJob.getExecutionTimeMax() + 1);
+            if (actualCm <= actualMax && i != cTask) {
+                addEvent(actualCm, EVENT_CM, i);
+            }
+        }
+        addEvent(actualMax + 1, EVENT_CR, taskCount); //Finishing event
+        Arrays.sort(events, 0, eventCount);
+
+        //Main cycle, keep track of the eligible jobs and create new nodes if needed
+        crJobs.clear();
+        prCount = 0;
+        int ceJobStartTime = -1;
+        int e = 0;
+        while (e < eventCount) {
+            //Find all events at time t, they are ordered by their type
+            int t = (int) (events[e] >> 32);
+            boolean newCm = false;
+            while (e < eventCount && (int) (events[e] >> 32) == t && eventType(events[e]) == EVENT_CM) {
+                newCm = true;
+                e++;
+            }
+            int crFrom = e;
+            while (e < eventCount && (int) (events[e] >> 32) == t && eventType(events[e]) == EVENT_CR) {
+                e++;
+            }
+            int crTo = e;
+            while (e < eventCount && (int) (events[e] >> 32) == t) {
+                e++;
+            }
+            int prTo = e;
+            int previousBestCr = crJobs.peek();
+
+            //Remove CR jobs that are no longer viable due to CW
+            if (newCm) {
+                while (!crJobs.isEmpty()) { //Keep removing jobs from the CR heap until a viable one is found
+                    int curCrTask = crJobs.peek();
+                    if (t + appJobs[curCrTask].getExecutionTimeMax() > cTime && curCrTask != cTask) {
+                        crJobs.poll();
+                    } else {
+                        break;
+                    }
+                }
+                //Disable PR jobs due to critical time
+                for (int j = 0; j < prCount; j++) {
+                    int curTask = prTasks[j];
+                    if (appJobs[curTask].getExecutionTimeMax() + t > cTime && prStartTimes[j] != -1 && curTask != cTask) {
+                        //The job was active and now it needs to be deactivated because it violates critical time
+                        sink.addChild(appJobs[curTask], prStartTimes[j], t - 1);
+                        prStartTimes[j] = -1;
+                    }
+                }
+            }
+
+            //Add a new certainly released job if there is one
+            int newBestCrJobStartTime = -1;
+            if (crFrom != crTo) {
+                for (int k = crFrom; k < crTo; k++) { //Add new CR jobs
+                    crJobs.push(eventTask(events[k]));
+                }
+                for (int k = crFrom; k < crTo; k++) {
+                    int task = eventTask(events[k]);
+                    int jobIndex = task == taskCount ? -1 : prIndexOf(task);
+                    if (jobIndex != -1) {
+                        //The job was possibly released and needs to be removed from the possibly released jobs
+                        if (task == crJobs.peek()) {
+                            newBestCrJobStartTime = prStartTimes[jobIndex];
+                        } else if (prStartTimes[jobIndex] != -1) { //The job has been possibly-eligible and no longer is
+                            sink.addChild(appJobs[task], prStartTimes[jobIndex], t - 1);
+                        }
+                        removePr(jobIndex);
+                    }
+                }
+            }
+            if (newBestCrJobStartTime == -1) {
+                newBestCrJobStartTime = t;
+            }
+            int newBestCr = crJobs.peek();
+
+            //If the certainly released job changed, add a new node and activate/deactivate possibly released jobs
+            if (previousBestCr != newBestCr) {
+                //If this is not the first certainly-eligible job, create a new node (using the previous CE job)
+                if (previousBestCr != -1) {
+                    sink.addChild(appJobs[previousBestCr], ceJobStartTime, t - 1);
+                }
+                ceJobStartTime = newBestCrJobStartTime;
+
+                //Activate/deactivate PR jobs based on the new certainly-eligible job
+                for (int j = 0; j < prCount; j++) {
+                    int curTask = prTasks[j];
+                    if ((newBestCr == -1 || isBetter(curTask, newBestCr))
+                            && (t + appJobs[curTask].getExecutionTimeMax() <= cTime || curTask == cTask)) {
+                        if (prStartTimes[j] == -1) { //The job was deactivated and needs to be activated
+                            prStartTimes[j] = t;
+                        }
+                    } else if (prStartTimes[j] != -1) { //The job was active and now it needs to be deactivated
+                        sink.addChild(appJobs[curTask], prStartTimes[j], t - 1);
+                        prStartTimes[j] = -1;
+                    }
+                }
+            }
+
+            //Add new PR jobs
+            for (int k = crTo; k < prTo; k++) {
+                int task = eventTask(events[k]);
+                prTasks[prCount] = task;
+                prStartTimes[prCount] = newBestCr == -1 || isBetter(task, newBestCr) ? t : -1;
+                prCount++;
+            }
+        }
+    }
+
+    private static int eventType(long event) {
+        return (int) (event >> 24) & 0xFF;
+    }
+
+    private static int eventTask(long event) {
+        return (int) event & 0xFFFFFF;
+    }
+
+    /**
+     * Indexed binary min-heap of task indices ordered by the EDF-FP priority of their applicable jobs
+     */
+    private class JobHeap {
+        private final int[] heap;
+        private final int[] position; //Position of each task in the heap, -1 if the task is not in the heap
+        private int size;
+
+        JobHeap(int capacity) {
+            this.heap = new int[capacity];
+            this.position = new int[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        /**
+         * @return the best task, -1 if the heap is empty
+         */
+        int peek() {
+            return size == 0 ? -1 : heap[0];
+        }
+
+        void push(int task) {
+            if (position[task] != -1) {
+                return;
+            }
+            heap[size] = task;
+            position[task] = size;
+            siftUp(size++);
+        }
+
+        int poll() {
+            int ret = heap[0];
+            position[ret] = -1;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0);
+            }
+            return ret;
+        }
+
+        private void siftUp(int i) {
+            int task = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isBetter(task, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = task;
+            position[task] = i;
+        }
+
+        private void siftDown(int i) {
+            int task = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && isBetter(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!isBetter(heap[child], task)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = task;
+            position[task] = i;
+        }
+    }
+
+}
@@ -0,0 +1,423 @@
+package alg_et;
+
+import util.ZobristHasher;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Schedule graph nodes of one level stored in flat primitive arrays (structure of arrays).
+ * Node i is described by min[i], max[i], its deadline miss bit, the Zobrist hash of its task periods and
+ * the task periods taskPeriods[i*taskCount] ... taskPeriods[(i+1)*taskCount-1].
+ * The arrays only grow, so a store can be cleared and reused for every level of the graph.
+ */
+class NodeStore {
+
+    final int taskCount;
+    final ZobristHasher hasher;
+    int size;
+
+    int[] min; //earliest finish time
+    int[] max; //latest finish time
+    long[] deadlineMissBits; //bit i is set if node i caused a deadline miss
+    int[] taskPeriods; //packed task periods of all nodes
+    int[] parent; //offset of the parent node in the previous level, -1 for the root
+    long[] hash; //Zobrist hash of the task periods
+    int[] task; //Task of the job which was finished to reach the node, -1 for nodes added with explicit task periods
+
+    //Scratch space of the merging phase, it is kept between levels so that merging does not allocate
+    private int[] table; //Open addressing table, slots contain bucket index + 1 (0 is an empty slot)
+    private int[] nodeBucket; //Bucket of each node
+    private int[] bucketFirst; //First node of each bucket
+    private int[] bucketStart; //Start of each bucket in byBucket, bucketStart[bucketCount] is the size
+    private int[] bucketMerged; //Number of merged nodes of each bucket
+    private int[] byMin; //Node offsets ordered by the earliest finish time
+    private int[] byBucket; //Node offsets grouped by buckets, ordered by the earliest finish time in each bucket
+    private int[] minCounts; //Counting sort counters
+    private long[] sortKeys; //Fallback sort keys when the earliest finish times are too spread for counting sort
+    private int[] mergedMax; //Latest finish time of merged nodes, aligned with byBucket
+    private boolean[] mergedMiss; //Deadline miss of merged nodes, aligned with byBucket
+    private int[] mergedSlot; //Index in byBucket of the merged node into which each node was merged
+    private int[] slotTarget; //Offset in the target store of the merged node in each slot of byBucket
+
+    public NodeStore(int taskCount, int initialCapacity, ZobristHasher hasher) {
+        this.taskCount = taskCount;
+        this.hasher = hasher;
+        int capacity = Math.max(initialCapacity, 1);
+        this.min = new int[capacity];
+        this.max = new int[capacity];
+        this.deadlineMissBits = new long[(capacity >> 6) + 1];
+        this.taskPeriods = new int[capacity * taskCount];
+        this.parent = new int[capacity];
+        this.hash = new long[capacity];
+        this.task = new int[capacity];
+    }
+
+    public void clear() {
+        Arrays.fill(deadlineMissBits, 0, (size >> 6) + 1, 0L);
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= min.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, min.length * 2);
+        min = Arrays.copyOf(min, newCapacity);
+        max = Arrays.copyOf(max, newCapacity);
+        deadlineMissBits = Arrays.copyOf(deadlineMissBits, (newCapacity >> 6) + 1);
+        taskPeriods = Arrays.copyOf(taskPeriods, newCapacity * taskCount);
+        parent = Arrays.copyOf(parent, newCapacity);
+        hash = Arrays.copyOf(hash, newCapacity);
+        task = Arrays.copyOf(task, newCapacity);
+    }
+
+    public boolean causedDeadlineMiss(int node) {
+        return (deadlineMissBits[node >> 6] & (1L << node)) != 0;
+    }
+
+    private void setDeadlineMiss(int node, boolean causedDeadlineMiss) {
+        if (causedDeadlineMiss) {
+            deadlineMissBits[node >> 6] |= 1L << node;
+        } else {
+            deadlineMissBits[node >> 6] &= ~(1L << node);
+        }
+    }
+
+    /**
+     * @return if any node in the store caused a deadline miss
+     */
+    public boolean anyDeadlineMiss() {
+        for (int i = 0; i <= (size - 1) >> 6; i++) {
+            if (deadlineMissBits[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a node with explicitly given task periods
+     * @return offset of the new node
+     */
+    public int add(int nodeMin, int nodeMax, int[] nodeTaskPeriods, boolean causedDeadlineMiss, int parentOffset) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        min[node] = nodeMin;
+        max[node] = nodeMax;
+        setDeadlineMiss(node, causedDeadlineMiss);
+        System.arraycopy(nodeTaskPeriods, 0, taskPeriods, node * taskCount, taskCount);
+        parent[node] = parentOffset;
+        hash[node] = hasher.hash(nodeTaskPeriods, 0);
+        task[node] = -1;
+        return node;
+    }
+
+    /**
+     * Adds a node which is created from a node of another store by finishing one job of task taskIndex
+     * @return offset of the new node
+     */
+    public int addChild(NodeStore parentStore, int parentOffset, int taskIndex, int nodeMin, int nodeMax,
+                        boolean causedDeadlineMiss) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        min[node] = nodeMin;
+        max[node] = nodeMax;
+        setDeadlineMiss(node, causedDeadlineMiss);
+        System.arraycopy(parentStore.taskPeriods, parentOffset * taskCount, taskPeriods, node * taskCount, taskCount);
+        int oldPeriod = taskPeriods[node * taskCount + taskIndex]++;
+        parent[node] = parentOffset;
+        hash[node] = hasher.increment(parentStore.hash[parentOffset], taskIndex, oldPeriod);
+        task[node] = taskIndex;
+        return node;
+    }
+
+    /**
+     * Copies node of another store at the end of this store
+     * @return offset of the new node
+     */
+    public int copyFrom(NodeStore other, int otherNode) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        min[node] = other.min[otherNode];
+        max[node] = other.max[otherNode];
+        setDeadlineMiss(node, other.causedDeadlineMiss(otherNode));
+        System.arraycopy(other.taskPeriods, otherNode * taskCount, taskPeriods, node * taskCount, taskCount);
+        parent[node] = other.parent[otherNode];
+        hash[node] = other.hash[otherNode];
+        task[node] = other.task[otherNode];
+        return node;
+    }
+
+    /**
+     * Moves a node to a lower offset, the node at that offset is overwritten.
+     * Nodes can be removed from the store by moving the kept nodes to the front and then truncating the store.
+     */
+    public void moveNode(int from, int to) {
+        min[to] = min[from];
+        max[to] = max[from];
+        setDeadlineMiss(to, causedDeadlineMiss(from));
+        System.arraycopy(taskPeriods, from * taskCount, taskPeriods, to * taskCount, taskCount);
+        parent[to] = parent[from];
+        hash[to] = hash[from];
+        task[to] = task[from];
+    }
+
+    /**
+     * Removes all nodes from offset newSize onward
+     */
+    public void truncate(int newSize) {
+        for (int node = newSize; node < size; node++) {
+            setDeadlineMiss(node, false);
+        }
+        size = newSize;
+    }
+
+    /**
+     * Copies all nodes of another store at the end of this store, the order of the nodes is kept
+     */
+    public void appendAll(NodeStore other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.min, 0, min, size, other.size);
+        System.arraycopy(other.max, 0, max, size, other.size);
+        System.arraycopy(other.taskPeriods, 0, taskPeriods, size * taskCount, other.size * taskCount);
+        System.arraycopy(other.parent, 0, parent, size, other.size);
+        System.arraycopy(other.hash, 0, hash, size, other.size);
+        System.arraycopy(other.task, 0, task, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            setDeadlineMiss(size + i, other.causedDeadlineMiss(i));
+        }
+        size += other.size;
+    }
+
+    /**
+     * @return if two nodes have the same task periods
+     */
+    public boolean sameTaskPeriods(int nodeA, int nodeB) {
+        int offsetA = nodeA * taskCount;
+        int offsetB = nodeB * taskCount;
+        for (int i = 0; i < taskCount; i++) {
+            if (taskPeriods[offsetA + i] != taskPeriods[offsetB + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges nodes with the same task periods and overlapping finish time intervals and writes the result into
+     * the target store. The nodes are ordered by the earliest finish time once for the whole level (counting sort)
+     * and then distributed into buckets of nodes with the same task periods, so every bucket is already ordered and
+     * its overlapping intervals are fused with one sweep. Every merged node is written at the write cursor of its
+     * bucket, no element is ever shifted. The parent of a merged node is the parent of its first part.
+     * Merged nodes are written in the order of the first node of their bucket, then by the earliest finish time.
+     * @param target store into which the merged nodes are written, it must not be this store
+     * @param pool pool in which the buckets are swept in parallel, null to sweep them in the calling thread
+     * @param minParallelSize smallest number of nodes for which the pool is used
+     */
+    public void mergeInto(NodeStore target, ForkJoinPool pool, int minParallelSize) {
+        if (size == 0) {
+            return;
+        }
+        int bucketCount = groupByTaskPeriods();
+        orderByMin();
+        distributeIntoBuckets(bucketCount);
+        if (pool != null && size >= minParallelSize) {
+            pool.invoke(new SweepTask(0, bucketCount, Math.max(minParallelSize / 4, 1)));
+        } else {
+            sweepBuckets(0, bucketCount);
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            int start = bucketStart[b];
+            for (int i = start; i < start + bucketMerged[b]; i++) {
+                int node = target.copyFrom(this, byBucket[i]);
+                target.max[node] = mergedMax[i];
+                target.setDeadlineMiss(node, mergedMiss[i]);
+                slotTarget[i] = node;
+            }
+        }
+    }
+
+    /**
+     * @param node node of this store
+     * @return offset of the node in the target store of the last merge into which the node was merged
+     */
+    public int mergedOffset(int node) {
+        return slotTarget[mergedSlot[node]];
+    }
+
+    /**
+     * Merges nodes in the calling thread
+     */
+    public void mergeInto(NodeStore target) {
+        mergeInto(target, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Puts every node into a bucket of nodes with the same task periods. Nodes are grouped in an open addressing
+     * table keyed by the Zobrist hash, the task periods are compared only if two hashes are the same.
+     * Buckets are numbered in the order of their first node.
+     * @return number of buckets
+     */
+    private int groupByTaskPeriods() {
+        int tableSize = Integer.highestOneBit(Math.max(size, 8)) << 2;
+        if (table == null || table.length < tableSize) {
+            table = new int[tableSize];
+        } else {
+            tableSize = table.length;
+            Arrays.fill(table, 0);
+        }
+        if (nodeBucket == null || nodeBucket.length < size) {
+            int capacity = Math.max(size, 16);
+            nodeBucket = new int[capacity];
+            bucketFirst = new int[capacity];
+            bucketStart = new int[capacity + 1];
+            bucketMerged = new int[capacity];
+            byMin = new int[capacity];
+            byBucket = new int[capacity];
+            mergedMax = new int[capacity];
+            mergedMiss = new boolean[capacity];
+            mergedSlot = new int[capacity];
+            slotTarget = new int[capacity];
+        }
+        int mask = tableSize - 1;
+        int bucketCount = 0;
+        for (int node = 0; node < size; node++) {
+            int slot = ZobristHasher.fold(hash[node]) & mask;
+            while (true) {
+                int bucket = table[slot] - 1;
+                if (bucket == -1) { //Empty slot, create a new bucket
+                    table[slot] = bucketCount + 1;
+                    bucketFirst[bucketCount] = node;
+                    nodeBucket[node] = bucketCount;
+                    bucketCount++;
+                    break;
+                }
+                int first = bucketFirst[bucket];
+                if (hash[first] == hash[node] && sameTaskPeriods(first, node)) {
+                    nodeBucket[node] = bucket;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return bucketCount;
+    }
+
+    /**
+     * Stable ordering of all nodes by the earliest finish time into byMin. Counting sort is used when the earliest
+     * finish times of the level lie in a range comparable to the number of nodes (which is the usual case, because
+     * the nodes of one level are close in time), otherwise sorting of primitive keys is used.
+     */
+    private void orderByMin() {
+        int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+        for (int node = 0; node < size; node++) {
+            lo = Math.min(lo, min[node]);
+            hi = Math.max(hi, min[node]);
+        }
+        long range = (long) hi - lo + 1;
+        if (range <= 2L * size + 1024) {
+            if (minCounts == null || minCounts.length < range + 1) {
+                minCounts = new int[(int) range + 1];
+            } else {
+                Arrays.fill(minCounts, 0, (int) range + 1, 0);
+            }
+            for (int node = 0; node < size; node++) {
+                minCounts[min[node] - lo + 1]++;
+            }
+            for (int i = 1; i <= range; i++) {
+                minCounts[i] += minCounts[i - 1];
+            }
+            for (int node = 0; node < size; node++) {
+                byMin[minCounts[min[node] - lo]++] = node;
+            }
+        } else {
+            if (sortKeys == null || sortKeys.length < size) {
+                sortKeys = new long[Math.max(size, 16)];
+            }
+            for (int node = 0; node < size; node++) {
+                sortKeys[node] = ((long) (min[node] - lo) << 32) | node;
+            }
+            Arrays.sort(sortKeys, 0, size);
+            for (int i = 0; i < size; i++) {
+                byMin[i] = (int) sortKeys[i];
+            }
+        }
+    }
+
+    /**
+     * Distributes nodes into their buckets in byBucket, every bucket keeps the order of byMin
+     */
+    private void distributeIntoBuckets(int bucketCount) {
+        Arrays.fill(bucketStart, 0, bucketCount + 1, 0);
+        for (int node = 0; node < size; node++) {
+            bucketStart[nodeBucket[node] + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+            bucketMerged[b] = bucketStart[b]; //Used as the fill cursor of the bucket
+        }
+        for (int i = 0; i < size; i++) {
+            int node = byMin[i];
+            byBucket[bucketMerged[nodeBucket[node]]++] = node;
+        }
+    }
+
+    /**
+     * Fuses overlapping intervals of buckets fromBucket (inclusive) ... toBucket (exclusive) with a single sweep
+     * over each bucket. Merged nodes are written at the write cursor at the start of their bucket.
+     */
+    private void sweepBuckets(int fromBucket, int toBucket) {
+        for (int b = fromBucket; b < toBucket; b++) {
+            int start = bucketStart[b];
+            int end = bucketStart[b + 1];
+            int write = start;
+            byBucket[write] = byBucket[start];
+            mergedMax[write] = max[byBucket[start]];
+            mergedMiss[write] = causedDeadlineMiss(byBucket[start]);
+            mergedSlot[byBucket[start]] = write;
+            for (int i = start + 1; i < end; i++) {
+                int right = byBucket[i];
+                if (mergedMax[write] >= min[right]) {
+                    mergedMax[write] = Math.max(mergedMax[write], max[right]);
+                    mergedMiss[write] |= causedDeadlineMiss(right);
+                    mergedSlot[right] = write;
+                } else {
+                    write++;
+                    byBucket[write] = right;
+                    mergedMax[write] = max[right];
+                    mergedMiss[write] = causedDeadlineMiss(right);
+                    mergedSlot[right] = write;
+                }
+            }
+            bucketMerged[b] = write - start + 1;
+        }
+    }
+
+    /**
+     * Sweeps a range of buckets, the range is split until it contains at most the given number of nodes
+     */
+    private class SweepTask extends RecursiveAction {
+        final int fromBucket;
+        final int toBucket;
+        final int maxNodes;
+
+        SweepTask(int fromBucket, int toBucket, int maxNodes) {
+            this.fromBucket = fromBucket;
+            this.toBucket = toBucket;
+            this.maxNodes = maxNodes;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBucket - fromBucket > 1 && bucketStart[toBucket] - bucketStart[fromBucket] > maxNodes) {
+                int mid = (fromBucket + toBucket) >>> 1;
+                invokeAll(new SweepTask(fromBucket, mid, maxNodes), new SweepTask(mid, toBucket, maxNodes));
+            } else {
+                sweepBuckets(fromBucket, toBucket);
+            }
+        }
+    }
+
+}
@@ -3,8 +3,19 @@ package alg_ettt;
 import alg_et.EtScheduleGraphTest;
 import model.*;
 import util.IntervalTree;
+import util.PeriodicOccupancy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static util.JobTaskUtils.*;
 
@@ -23,6 +34,47 @@ public class EtttBruteForceScheduler {
     private final SchedulingPolicy policy;
 
     public int scheduleGraphCalls = 0; //For benchmarking
+    public int prefixScheduleGraphCalls = 0; //Schedule graph calls of partial placements, for benchmarking
+    public int prunedPrefixes = 0; //Partial placements whose subtrees were pruned, for benchmarking
+    public long scheduleGraphLevels = 0; //Levels expanded by all schedule graph calls, for benchmarking
+    public int nogoodLookups = 0; //Placements checked against the nogood cache, for benchmarking
+    public int nogoodHits = 0; //Placements skipped because they contain a cached nogood, for benchmarking
+
+    //TT jobs in the order of tasks and repetitions, jobs of task i start at taskFirstPosition[i]
+    private final int[] taskMajorTasks;
+    private final int[] taskMajorRepetitions;
+    private final int[] taskFirstPosition;
+    //Release times and deadlines of TT jobs before they are fixed, in the order of tasks and repetitions
+    private final int[] originalReleases;
+    private final int[] originalDeadlines;
+    //Order in which TT jobs are fixed by scheduleJobsRec
+    private int[] orderTasks;
+    private int[] orderRepetitions;
+
+    private int[] fixingStep; //Step of the search at which each TT job (in the task major order) is fixed
+    private boolean noJitterSearch; //If all jobs of a task are fixed in one step
+
+    private boolean orderJobsByTime = false;
+    private boolean usePrefixPruning = false;
+
+    private boolean useEventPoints = false;
+    private boolean useOccupancyBitset = false;
+    private final int[] etReleaseBounds; //Sorted distinct earliest and latest release times of ET jobs
+
+    private static final int NOGOOD_CACHE_SIZE = 1 << 14; //Maximal number of keys in the nogood cache
+    private static final int NOGOODS_PER_KEY = 4; //Maximal number of nogoods with the same key, the oldest is replaced
+    private boolean useNogoodCache = false;
+    private LinkedHashMap<Long, ArrayList<Nogood>> nogoods; //Keyed by the last step of a nogood and its start time
+    private boolean unconditionalDeadlineMiss = false; //A deadline miss which does not depend on any TT job was found
+
+    //Parallel search, see processTasksParallel
+    private static final int PREFIXES_PER_THREAD = 16; //More prefixes than threads balance uneven subtrees
+    private AtomicInteger solutionPrefix; //Lowest index of a prefix with a solution, null in a sequential search
+    private int prefixIndex; //Index of the prefix searched by this worker
+
+    private boolean useCheckpoints = false;
+    private EtScheduleGraphTest checkpointedTest; //Schedule graph test whose checkpoints are resumed by the next leaf
+    private int[][] checkpointedStartTimes; //Start times of TT jobs in the last graph of checkpointedTest
 
     /**
      * @param ttTasks map of time triggered tasks (TaskId -> Task)
@@ -46,6 +98,184 @@ public class EtttBruteForceScheduler {
         for (int iAll = ttJobs2D.length, iET = 0; iAll < allJobs.length; iAll++, iET++) {
             allJobs[iAll] = etJobs2D[iET];
         }
+
+        taskFirstPosition = new int[ttTaskNum + 1];
+        for (int i = 0; i < ttTaskNum; i++) {
+            taskFirstPosition[i + 1] = taskFirstPosition[i] + allJobs[i].size();
+        }
+        taskMajorTasks = new int[taskFirstPosition[ttTaskNum]];
+        taskMajorRepetitions = new int[taskFirstPosition[ttTaskNum]];
+        originalReleases = new int[taskFirstPosition[ttTaskNum]];
+        originalDeadlines = new int[taskFirstPosition[ttTaskNum]];
+        for (int i = 0; i < ttTaskNum; i++) {
+            for (int j = 0; j < allJobs[i].size(); j++) {
+                taskMajorTasks[taskFirstPosition[i] + j] = i;
+                taskMajorRepetitions[taskFirstPosition[i] + j] = j;
+                originalReleases[taskFirstPosition[i] + j] = allJobs[i].get(j).getReleaseTimeMin();
+                originalDeadlines[taskFirstPosition[i] + j] = allJobs[i].get(j).getDeadline();
+            }
+        }
+        etReleaseBounds = getEtReleaseBounds();
+    }
+
+    /**
+     * Creates a worker of a parallel search with its own copies of TT jobs, ET jobs are shared as they are not changed
+     */
+    private EtttBruteForceScheduler(EtttBruteForceScheduler other) {
+        this.policy = other.policy;
+        this.hyperperiod = other.hyperperiod;
+        this.ttTaskNum = other.ttTaskNum;
+        this.allJobs = other.allJobs.clone();
+        for (int i = 0; i < ttTaskNum; i++) {
+            allJobs[i] = new ArrayList<>();
+            for (EtJob j : other.allJobs[i]) {
+                allJobs[i].add(new EtJob(j.getTaskId(), j.getRepetition(), j.getPeriod(), j.getDeadline(),
+                        j.getReleaseTimeMin(), j.getReleaseTimeMax(), j.getExecutionTimeMin(),
+                        j.getExecutionTimeMax(), j.getPriority()));
+            }
+        }
+        this.taskMajorTasks = other.taskMajorTasks;
+        this.taskMajorRepetitions = other.taskMajorRepetitions;
+        this.taskFirstPosition = other.taskFirstPosition;
+        this.originalReleases = other.originalReleases;
+        this.originalDeadlines = other.originalDeadlines;
+        this.etReleaseBounds = other.etReleaseBounds;
+        this.useEventPoints = other.useEventPoints;
+        this.useOccupancyBitset = other.useOccupancyBitset;
+        this.orderTasks = other.orderTasks;
+        this.orderRepetitions = other.orderRepetitions;
+        this.fixingStep = other.fixingStep;
+        this.noJitterSearch = other.noJitterSearch;
+        this.orderJobsByTime = other.orderJobsByTime;
+        this.usePrefixPruning = other.usePrefixPruning;
+        this.useNogoodCache = other.useNogoodCache;
+        this.useCheckpoints = other.useCheckpoints;
+        this.solutionPrefix = other.solutionPrefix;
+        for (int i = 0; i < taskMajorTasks.length; i++) {
+            resetJob(taskMajorTasks[i], taskMajorRepetitions[i]);
+        }
+    }
+
+    /**
+     * @param useCheckpoints if the schedule graph of a leaf should be resumed from the last level of the previous
+     *                       leaf's graph which does not depend on the TT jobs whose start times differ between the
+     *                       leaves, instead of being generated from time 0
+     */
+    public void setUseCheckpoints(boolean useCheckpoints) {
+        this.useCheckpoints = useCheckpoints;
+        checkpointedTest = null;
+    }
+
+    /**
+     * @param orderJobsByTime if processTasks should fix TT jobs in the order of their earliest start times instead of
+     *                        fixing all jobs of one task after another. Partial placements then cover a prefix of the
+     *                        hyperperiod, so prefix pruning can check them.
+     */
+    public void setOrderJobsByTime(boolean orderJobsByTime) {
+        this.orderJobsByTime = orderJobsByTime;
+    }
+
+    /**
+     * @param usePrefixPruning if every partial placement should be checked by a schedule graph which is generated
+     *                         only until it would depend on a TT job which is not fixed yet. A deadline miss in that
+     *                         graph occurs for every placement of the remaining jobs, so the whole subtree is pruned.
+     */
+    public void setUsePrefixPruning(boolean usePrefixPruning) {
+        this.usePrefixPruning = usePrefixPruning;
+    }
+
+    /**
+     * @param useNogoodCache if start times of TT jobs which lead to a deadline miss regardless of the other TT jobs
+     *                       should be cached, so that placements which contain them are skipped. A nogood consists of
+     *                       the TT jobs read by the failed schedule graph (see EtScheduleGraphTest.getReadTaskPeriods).
+     *                       The cache keeps the most recently used nogoods.
+     */
+    public void setUseNogoodCache(boolean useNogoodCache) {
+        this.useNogoodCache = useNogoodCache;
+    }
+
+    /**
+     * @param useEventPoints if processTasks should try only start times at event points instead of every time unit:
+     *                       the earliest start time of a TT job, finish times of already fixed TT jobs and the earliest
+     *                       and latest release times of ET jobs. This is a heuristic. Non-preemptive schedules have
+     *                       timing anomalies, so a solution may need a start time between event points (e.g. a TT job
+     *                       which has to wait until an ET job released at the same time finishes). A found solution is
+     *                       always valid, but a negative result does not mean that no solution exists.
+     *                       processTasksNoJitter ignores it.
+     */
+    public void setUseEventPoints(boolean useEventPoints) {
+        this.useEventPoints = useEventPoints;
+    }
+
+    /**
+     * @param useOccupancyBitset if processTasksNoJitter should check collisions of TT jobs in a bitset over the
+     *                           hyperperiod (see PeriodicOccupancy) instead of the interval tree. All jobs of a task
+     *                           are then checked and added at once, for tasks with short periods in one range query.
+     */
+    public void setUseOccupancyBitset(boolean useOccupancyBitset) {
+        this.useOccupancyBitset = useOccupancyBitset;
+    }
+
+    /**
+     * @return empty occupancy of the timeline by TT jobs for processTasksNoJitter
+     */
+    private PeriodicOccupancy createOccupancy() {
+        int length = hyperperiod;
+        for (int deadline : originalDeadlines) {
+            length = Math.max(length, deadline);
+        }
+        int[] periods = new int[ttTaskNum];
+        for (int i = 0; i < ttTaskNum; i++) {
+            periods[i] = allJobs[i].get(0).getPeriod();
+        }
+        return new PeriodicOccupancy(length, periods);
+    }
+
+    /**
+     * @return sorted distinct earliest and latest release times of all ET jobs
+     */
+    private int[] getEtReleaseBounds() {
+        int count = 0;
+        for (int i = ttTaskNum; i < allJobs.length; i++) {
+            count += 2 * allJobs[i].size();
+        }
+        int[] bounds = new int[count];
+        count = 0;
+        for (int i = ttTaskNum; i < allJobs.length; i++) {
+            for (EtJob job : allJobs[i]) {
+                bounds[count++] = job.getReleaseTimeMin();
+                bounds[count++] = job.getReleaseTimeMax();
+            }
+        }
+        return Arrays.stream(bounds).sorted().distinct().toArray();
+    }
+
+    /**
+     * @param orderIndex position of a TT job in the order of fixing
+     * @param time start time which was tried last
+     * @return next start time of the TT job to try, if event points are used it is the first event point after time
+     */
+    private int nextStartTime(int orderIndex, int time) {
+        if (!useEventPoints) {
+            return time + 1;
+        }
+        int ret = Integer.MAX_VALUE;
+        int i = Arrays.binarySearch(etReleaseBounds, time + 1);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        if (i < etReleaseBounds.length) {
+            ret = etReleaseBounds[i];
+        }
+        for (int pos = 0; pos < taskMajorTasks.length; pos++) {
+            if (fixingStep[pos] < orderIndex) {
+                int finishTime = allJobs[taskMajorTasks[pos]].get(taskMajorRepetitions[pos]).getDeadline();
+                if (finishTime > time && finishTime < ret) {
+                    ret = finishTime;
+                }
+            }
+        }
+        return ret;
     }
 
     /**
@@ -53,7 +283,37 @@ public class EtttBruteForceScheduler {
      * @return if a solution has been found
      */
     public boolean processTasks(boolean useIntervalTree) {
-        return scheduleJobsRec(0,0, useIntervalTree ? new IntervalTree() : null);
+        initJobOrder(false);
+        return scheduleJobsRec(0, useIntervalTree ? new IntervalTree() : null);
+    }
+
+    /**
+     * Sets the order in which scheduleJobsRec fixes TT jobs and the step at which each job is fixed
+     */
+    private void initJobOrder(boolean noJitter) {
+        orderTasks = taskMajorTasks;
+        orderRepetitions = taskMajorRepetitions;
+        if (orderJobsByTime) {
+            //Sort keys are the earliest start time and the position in the task major order
+            long[] keys = new long[taskMajorTasks.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) allJobs[taskMajorTasks[i]].get(taskMajorRepetitions[i]).getReleaseTimeMin() << 32) | i;
+            }
+            Arrays.sort(keys);
+            orderTasks = new int[keys.length];
+            orderRepetitions = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                orderTasks[i] = taskMajorTasks[(int) keys[i]];
+                orderRepetitions[i] = taskMajorRepetitions[(int) keys[i]];
+            }
+        }
+        noJitterSearch = noJitter;
+        fixingStep = new int[taskMajorTasks.length];
+        for (int i = 0; i < orderTasks.length; i++) {
+            fixingStep[taskFirstPosition[orderTasks[i]] + orderRepetitions[i]] = noJitter ? orderTasks[i] : i;
+        }
+        nogoods = null;
+        unconditionalDeadlineMiss = false;
     }
 
     /**
@@ -61,50 +321,261 @@ public class EtttBruteForceScheduler {
      * @return if a solution has been found
      */
     public boolean processTasksNoJitter(boolean useIntervalTree) {
-        return scheduleJobsRecNoJitter(0,useIntervalTree ? new IntervalTree() : null);
+        initJobOrder(true);
+        if (useIntervalTree && useOccupancyBitset) {
+            return scheduleJobsRecNoJitter(0, null, createOccupancy());
+        }
+        return scheduleJobsRecNoJitter(0, useIntervalTree ? new IntervalTree() : null, null);
+    }
+
+    /**
+     * Parallel variant of processTasks (or processTasksNoJitter). The start times of the first TT jobs (or tasks)
+     * are enumerated into prefixes, which are searched by a fork join pool. Every thread has its own copy of TT jobs
+     * and its own interval tree. Once a solution is found, prefixes after it are cancelled, while earlier prefixes are
+     * still searched, so the solution is the same as the one of the sequential search regardless of the number of
+     * threads.
+     * @param parallelism number of threads
+     * @return if a solution has been found
+     */
+    public boolean processTasksParallel(boolean useIntervalTree, boolean noJitter, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but is " + parallelism);
+        }
+        initJobOrder(noJitter);
+        int positions = noJitter ? ttTaskNum : orderTasks.length;
+
+        //Enumerate prefixes in the order in which the sequential search visits them
+        ArrayList<int[]> prefixes = new ArrayList<>();
+        prefixes.add(new int[0]);
+        int depth = 0;
+        while (depth < positions && prefixes.size() < PREFIXES_PER_THREAD * parallelism) {
+            ArrayList<int[]> nextPrefixes = new ArrayList<>();
+            for (int[] prefix : prefixes) {
+                IntervalTree it = useIntervalTree ? new IntervalTree() : null;
+                for (int p = 0; p < depth; p++) {
+                    placeInIntervalTree(it, noJitter, p, prefix[p]);
+                    if (!noJitter) {
+                        setStartTime(positionJob(false, p), prefix[p]); //Event points depend on fixed jobs
+                    }
+                }
+                EtJob job = positionJob(noJitter, depth);
+                for (int release = job.getReleaseTimeMin(); release <= job.getDeadline() - job.getExecutionTimeMax();
+                        release = noJitter ? release + 1 : nextStartTime(depth, release)) {
+                    if (placeInIntervalTree(it, noJitter, depth, release)) {
+                        removeFromIntervalTree(it, noJitter, depth, release);
+                        int[] nextPrefix = Arrays.copyOf(prefix, depth + 1);
+                        nextPrefix[depth] = release;
+                        nextPrefixes.add(nextPrefix);
+                    }
+                }
+                if (!noJitter) {
+                    resetPrefix(depth, false);
+                }
+            }
+            prefixes = nextPrefixes;
+            depth++;
+        }
+
+        solutionPrefix = new AtomicInteger(Integer.MAX_VALUE);
+        int[][][] solutions = new int[prefixes.size()][][];
+        List<EtttBruteForceScheduler> workers = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<EtttBruteForceScheduler> threadWorkers = ThreadLocal.withInitial(() -> {
+            EtttBruteForceScheduler worker = new EtttBruteForceScheduler(this);
+            workers.add(worker);
+            return worker;
+        });
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < prefixes.size(); i++) {
+            int index = i;
+            int[] prefix = prefixes.get(i);
+            tasks.add(() -> {
+                if (solutionPrefix.get() < index) {
+                    return null;
+                }
+                EtttBruteForceScheduler worker = threadWorkers.get();
+                if (worker.searchPrefix(prefix, index, useIntervalTree, noJitter)) {
+                    solutions[index] = worker.getStartTimes();
+                    solutionPrefix.accumulateAndGet(index, Math::min);
+                }
+                worker.resetPrefix(prefix.length, noJitter);
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            //Same as the sequential search, which stops with a positive result when it is interrupted
+            solutionPrefix.set(-1);
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+            solutionPrefix = null;
+            for (EtttBruteForceScheduler worker : workers) {
+                scheduleGraphCalls += worker.scheduleGraphCalls;
+                prefixScheduleGraphCalls += worker.prefixScheduleGraphCalls;
+                prunedPrefixes += worker.prunedPrefixes;
+                scheduleGraphLevels += worker.scheduleGraphLevels;
+            }
+        }
+
+        for (int[][] solution : solutions) {
+            if (solution != null) {
+                for (int i = 0; i < ttTaskNum; i++) {
+                    for (int j = 0; j < solution[i].length; j++) {
+                        setStartTime(allJobs[i].get(j), solution[i][j]);
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return TT job at a position of the fixing order, the first job of the task at the position if noJitter is set
+     */
+    private EtJob positionJob(boolean noJitter, int position) {
+        return noJitter ? allJobs[position].get(0) : allJobs[orderTasks[position]].get(orderRepetitions[position]);
+    }
+
+    private static void setStartTime(EtJob job, int startTime) {
+        job.setReleaseTimeMin(startTime);
+        job.setReleaseTimeMax(startTime);
+        job.setDeadline(startTime + job.getExecutionTimeMax());
+    }
+
+    /**
+     * Adds the execution of the job (or all jobs of the task if noJitter is set) at a position of the fixing order
+     * into the interval tree
+     * @return false if it intersects another execution, the tree is then not changed
+     */
+    private boolean placeInIntervalTree(IntervalTree it, boolean noJitter, int position, int release) {
+        if (it == null) {
+            return true;
+        }
+        EtJob job = positionJob(noJitter, position);
+        int count = noJitter ? allJobs[position].size() : 1;
+        if (it.intersectsAny(release, release + job.getExecutionTimeMax() - 1, job.getPeriod(), count)) {
+            return false;
+        }
+        it.addAll(release, release + job.getExecutionTimeMax() - 1, job.getPeriod(), count);
+        return true;
+    }
+
+    private void removeFromIntervalTree(IntervalTree it, boolean noJitter, int position, int release) {
+        if (it == null) {
+            return;
+        }
+        EtJob job = positionJob(noJitter, position);
+        int count = noJitter ? allJobs[position].size() : 1;
+        it.removeAll(release, release + job.getExecutionTimeMax() - 1, job.getPeriod(), count);
+    }
+
+    /**
+     * Fixes the jobs of a prefix and searches the rest of the start times, used by workers of a parallel search
+     * @return if a solution has been found
+     */
+    private boolean searchPrefix(int[] prefix, int index, boolean useIntervalTree, boolean noJitter) {
+        prefixIndex = index;
+        PeriodicOccupancy occupancy = useIntervalTree && noJitter && useOccupancyBitset ? createOccupancy() : null;
+        IntervalTree it = useIntervalTree && occupancy == null ? new IntervalTree() : null;
+        for (int p = 0; p < prefix.length; p++) {
+            placeInIntervalTree(it, noJitter, p, prefix[p]);
+            if (occupancy != null) {
+                EtJob firstJob = allJobs[p].get(0);
+                occupancy.add(prefix[p], firstJob.getExecutionTimeMax(), firstJob.getPeriod(), allJobs[p].size());
+            }
+            if (noJitter) {
+                for (EtJob job : allJobs[p]) {
+                    setStartTime(job, prefix[p] + job.getRepetition() * job.getPeriod());
+                }
+            } else {
+                setStartTime(positionJob(false, p), prefix[p]);
+            }
+        }
+        int unfixedFrom = noJitter ? taskFirstPosition[prefix.length] : prefix.length;
+        if (usePrefixPruning && unfixedFrom > 0 && unfixedFrom < taskMajorTasks.length
+                && !testStartTimes(false, noJitter ? taskMajorTasks : orderTasks,
+                noJitter ? taskMajorRepetitions : orderRepetitions, unfixedFrom)) {
+            prunedPrefixes++;
+            return false;
+        }
+        return noJitter ? scheduleJobsRecNoJitter(prefix.length, it, occupancy) : scheduleJobsRec(prefix.length, it);
+    }
+
+    /**
+     * Restores the original release times and deadlines of the jobs fixed by searchPrefix
+     */
+    private void resetPrefix(int prefixLength, boolean noJitter) {
+        for (int p = 0; p < prefixLength; p++) {
+            if (noJitter) {
+                for (int j = 0; j < allJobs[p].size(); j++) {
+                    resetJob(p, j);
+                }
+            } else {
+                resetJob(orderTasks[p], orderRepetitions[p]);
+            }
+        }
+    }
+
+    private void resetJob(int task, int repetition) {
+        EtJob job = allJobs[task].get(repetition);
+        int position = taskFirstPosition[task] + repetition;
+        job.setReleaseTimeMin(originalReleases[position]);
+        job.setReleaseTimeMax(originalReleases[position]);
+        job.setDeadline(originalDeadlines[position]);
     }
 
     /**
      * Recursive procedure which assigns a time triggered job to all possible positions.
      * Once all jobs are fixed, a schedule graph analysis is executed.
+     * @param orderIndex position of the job in the order of fixing (orderTasks, orderRepetitions)
      * @return if a solution has been found
      */
-    private boolean scheduleJobsRec(int curTaskId, int curJobRepetition, IntervalTree it) {
-        if (curTaskId == ttTaskNum) {
+    private boolean scheduleJobsRec(int orderIndex, IntervalTree it) {
+        if (solutionPrefix != null && solutionPrefix.get() < prefixIndex) {
+            return false; //An earlier prefix has a solution
+        }
+        if (orderIndex == orderTasks.length) {
             if (Thread.currentThread().isInterrupted()) {
                 return true;
             }
-            EtScheduleGraphTest sgc = new EtScheduleGraphTest(allJobs);
-            scheduleGraphCalls++;
-            return sgc.generateGraphTest(true, this.policy,false);
+            return testStartTimes(false, orderTasks, orderRepetitions, orderIndex);
         }
-        EtJob curJob = allJobs[curTaskId].get(curJobRepetition);
-        int curTaskJobCount = hyperperiod / allJobs[curTaskId].get(0).getPeriod();
+        EtJob curJob = allJobs[orderTasks[orderIndex]].get(orderRepetitions[orderIndex]);
         int ogRelease = curJob.getReleaseTimeMin();
         int ogDeadline = curJob.getDeadline();
-        for (int release = ogRelease, deadline = ogRelease + curJob.getExecutionTimeMax(); release <= ogDeadline - curJob.getExecutionTimeMax(); release++, deadline++) {
+        for (int release = ogRelease, deadline = ogRelease + curJob.getExecutionTimeMax();
+                release <= ogDeadline - curJob.getExecutionTimeMax();
+                release = nextStartTime(orderIndex, release), deadline = release + curJob.getExecutionTimeMax()) {
             curJob.setReleaseTimeMin(release);
             curJob.setReleaseTimeMax(release);
             curJob.setDeadline(deadline);
 
-            int nextTaskId, nextJobRepetition;
-
-            if (curTaskJobCount == curJobRepetition+1) {
-                nextTaskId = curTaskId+1;
-                nextJobRepetition = 0;
-            } else {
-                nextTaskId = curTaskId;
-                nextJobRepetition = curJobRepetition+1;
-            }
-
             if (it != null) {
-                if (it.intersects(release, deadline-1)) {
+                int blockingHi = it.findIntersectingHi(release, deadline-1);
+                if (blockingHi != Integer.MIN_VALUE) {
+                    //Every later start time up to blockingHi intersects the same execution
+                    release = blockingHi;
                     continue;
                 }
                 it.add(release, deadline-1);
             }
-            if (scheduleJobsRec(nextTaskId, nextJobRepetition, it)) {
-                return true;
+            if (useNogoodCache && containsNogood(orderIndex, release)) {
+                nogoodHits++;
+            } else if (!usePrefixPruning || orderIndex + 1 == orderTasks.length
+                    || testStartTimes(false, orderTasks, orderRepetitions, orderIndex + 1)) {
+                if (scheduleJobsRec(orderIndex + 1, it)) {
+                    return true;
+                }
+            } else {
+                prunedPrefixes++;
             }
             if (it != null) {
                 it.remove(release, deadline - 1);
@@ -122,14 +593,15 @@ public class EtttBruteForceScheduler {
      * Once all jobs are fixed, a schedule graph analysis is executed.
      * @return if a solution has been found
      */
-    private boolean scheduleJobsRecNoJitter(int curTaskId, IntervalTree it) {
+    private boolean scheduleJobsRecNoJitter(int curTaskId, IntervalTree it, PeriodicOccupancy occupancy) {
+        if (solutionPrefix != null && solutionPrefix.get() < prefixIndex) {
+            return false; //An earlier prefix has a solution
+        }
         if (curTaskId == ttTaskNum) {
             if (Thread.currentThread().isInterrupted()) {
                 return true;
             }
-            EtScheduleGraphTest sgc = new EtScheduleGraphTest(allJobs);
-            scheduleGraphCalls++;
-            return sgc.generateGraphTest(true, this.policy,true);
+            return testStartTimes(true, taskMajorTasks, taskMajorRepetitions, taskMajorTasks.length);
         }
         EtJob firstJob = allJobs[curTaskId].get(0);
         int curTaskPeriod = allJobs[curTaskId].get(0).getPeriod();
@@ -139,20 +611,31 @@ public class EtttBruteForceScheduler {
         for (int release = ogRelease, deadline = ogRelease + firstJob.getExecutionTimeMax();
                 release <= ogDeadline - firstJob.getExecutionTimeMax();
                 release++, deadline++) {
-            if (it != null) {
-                boolean intersection = false;
+            if (occupancy != null) {
+                int blockedUntil = occupancy.findBlockedUntil(release, firstJob.getExecutionTimeMax(), curTaskPeriod,
+                        curTaskJobCount);
+                if (blockedUntil != Integer.MIN_VALUE) {
+                    release = blockedUntil;
+                    deadline = release + firstJob.getExecutionTimeMax();
+                    continue;
+                }
+                occupancy.add(release, firstJob.getExecutionTimeMax(), curTaskPeriod, curTaskJobCount);
+            } else if (it != null) {
+                int blockedUntil = Integer.MIN_VALUE;
                 for (int i = 0; i < curTaskJobCount; i++) {
-                    if (it.intersects(release + i*curTaskPeriod, deadline-1 + i*curTaskPeriod)) {
-                        intersection = true;
+                    int blockingHi = it.findIntersectingHi(release + i*curTaskPeriod, deadline-1 + i*curTaskPeriod);
+                    if (blockingHi != Integer.MIN_VALUE) {
+                        blockedUntil = blockingHi - i*curTaskPeriod;
                         break;
                     }
                 }
-                if (intersection) {
+                if (blockedUntil != Integer.MIN_VALUE) {
+                    //Every later start time up to blockedUntil intersects the same execution
+                    release = blockedUntil;
+                    deadline = release + firstJob.getExecutionTimeMax();
                     continue;
                 }
-                for (int i = 0; i < curTaskJobCount; i++) {
-                    it.add(release + i*curTaskPeriod, deadline-1 + i*curTaskPeriod);
-                }
+                it.addAll(release, deadline-1, curTaskPeriod, curTaskJobCount);
             }
             for (int i = 0; i < curTaskJobCount; i++) {
                 EtJob curJob = allJobs[curTaskId].get(i);
@@ -160,13 +643,20 @@ public class EtttBruteForceScheduler {
                 curJob.setReleaseTimeMin(release + i*curTaskPeriod);
                 curJob.setDeadline(deadline + i*curTaskPeriod);
             }
-            if (scheduleJobsRecNoJitter(curTaskId+1, it)) {
-                return true;
-            }
-            if (it != null) {
-                for (int i = 0; i < curTaskJobCount; i++) {
-                    it.remove(release + i*curTaskPeriod, deadline-1 + i*curTaskPeriod);
+            if (useNogoodCache && containsNogood(curTaskId, release)) {
+                nogoodHits++;
+            } else if (!usePrefixPruning || curTaskId + 1 == ttTaskNum
+                    || testStartTimes(false, taskMajorTasks, taskMajorRepetitions, taskFirstPosition[curTaskId + 1])) {
+                if (scheduleJobsRecNoJitter(curTaskId+1, it, occupancy)) {
+                    return true;
                 }
+            } else {
+                prunedPrefixes++;
+            }
+            if (occupancy != null) {
+                occupancy.remove(release, firstJob.getExecutionTimeMax(), curTaskPeriod, curTaskJobCount);
+            } else if (it != null) {
+                it.removeAll(release, deadline-1, curTaskPeriod, curTaskJobCount);
             }
         }
         for (int i = 0; i < curTaskJobCount; i++) {
@@ -178,6 +668,203 @@ public class EtttBruteForceScheduler {
         return false;
     }
 
+    /**
+     * Executes a schedule graph analysis of the current start times of TT jobs. If some TT jobs are not fixed yet,
+     * the graph is generated only until it would depend on any of them.
+     * @param saveGraph should the graph be saved into memory, ignored when checkpoints are used or some jobs are not
+     *                  fixed
+     * @param tasks tasks of TT jobs in the order in which they are fixed
+     * @param repetitions repetitions of TT jobs in the order in which they are fixed
+     * @param unfixedFrom position of the first TT job which is not fixed yet
+     * @return if the jobs are schedulable, or if no deadline miss was found before any job which is not fixed yet
+     */
+    private boolean testStartTimes(boolean saveGraph, int[] tasks, int[] repetitions, int unfixedFrom) {
+        boolean partial = unfixedFrom < tasks.length;
+        int unfixedCount = tasks.length - unfixedFrom;
+        int[] unfixedTasks = null, unfixedPeriods = null, unfixedReleases = null;
+        if (partial) {
+            prefixScheduleGraphCalls++;
+            unfixedTasks = Arrays.copyOfRange(tasks, unfixedFrom, tasks.length);
+            unfixedPeriods = Arrays.copyOfRange(repetitions, unfixedFrom, tasks.length);
+            unfixedReleases = new int[unfixedCount];
+            for (int i = 0; i < unfixedCount; i++) {
+                unfixedReleases[i] = allJobs[unfixedTasks[i]].get(unfixedPeriods[i]).getReleaseTimeMin();
+            }
+        } else {
+            scheduleGraphCalls++;
+        }
+        if (!useCheckpoints) {
+            EtScheduleGraphTest sgc = new EtScheduleGraphTest(allJobs);
+            sgc.setTrackReadJobs(useNogoodCache);
+            boolean ret = partial
+                    ? sgc.generateGraphTestUntilRead(0, unfixedTasks, unfixedPeriods, unfixedReleases, unfixedCount, policy)
+                    : sgc.generateGraphTest(true, this.policy, saveGraph);
+            scheduleGraphLevels += sgc.expandedLevels;
+            if (!ret && useNogoodCache) {
+                addNogood(sgc, tasks, unfixedFrom);
+            }
+            return ret;
+        }
+
+        int level = 0;
+        if (checkpointedTest == null) {
+            checkpointedTest = new EtScheduleGraphTest(allJobs);
+            checkpointedTest.setKeepCheckpoints(true);
+            checkpointedStartTimes = getStartTimes();
+        } else {
+            //Find the TT jobs whose start times changed since the last graph
+            int[] changedTasks = new int[this.taskMajorTasks.length];
+            int[] changedPeriods = new int[this.taskMajorTasks.length];
+            int[] earliestReleases = new int[this.taskMajorTasks.length];
+            int changedCount = 0;
+            for (int i = 0; i < ttTaskNum; i++) {
+                for (int j = 0; j < checkpointedStartTimes[i].length; j++) {
+                    int startTime = allJobs[i].get(j).getReleaseTimeMin();
+                    if (startTime != checkpointedStartTimes[i][j]) {
+                        changedTasks[changedCount] = i;
+                        changedPeriods[changedCount] = j;
+                        earliestReleases[changedCount] = Math.min(startTime, checkpointedStartTimes[i][j]);
+                        changedCount++;
+                        checkpointedStartTimes[i][j] = startTime;
+                    }
+                }
+            }
+            level = checkpointedTest.getLastUnaffectedLevel(changedTasks, changedPeriods, earliestReleases,
+                    changedCount, policy);
+        }
+        boolean ret = partial
+                ? checkpointedTest.generateGraphTestUntilRead(level, unfixedTasks, unfixedPeriods, unfixedReleases,
+                        unfixedCount, policy)
+                : checkpointedTest.generateGraphTestResumed(level, true, this.policy);
+        scheduleGraphLevels += checkpointedTest.expandedLevels;
+        if (!ret && useNogoodCache) {
+            addNogood(checkpointedTest, tasks, unfixedFrom);
+        }
+        return ret;
+    }
+
+    /**
+     * Start times of TT jobs which lead to a deadline miss regardless of the start times of the other TT jobs
+     */
+    private static class Nogood {
+        final int[] positions; //Jobs in the task major order
+        final int[] startTimes;
+        final int[] laterPositions; //Jobs which must start after the horizon, so that they are not read under EDF-FP
+        final int horizon;
+
+        Nogood(int[] positions, int[] startTimes, int[] laterPositions, int horizon) {
+            this.positions = positions;
+            this.startTimes = startTimes;
+            this.laterPositions = laterPositions;
+            this.horizon = horizon;
+        }
+    }
+
+    /**
+     * @return key of the nogood cache for a step of the search and the start time of the job (or of the first job of
+     * the task) fixed in it
+     */
+    private static long nogoodKey(int step, int startTime) {
+        return ((long) step << 32) | (startTime & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the TT jobs read by a schedule graph test which found a deadline miss into the nogood cache
+     * @param tasks tasks of the TT jobs in the order in which they are fixed
+     * @param unfixedFrom index of the first TT job in the order which was not fixed in the test
+     */
+    private void addNogood(EtScheduleGraphTest sgc, int[] tasks, int unfixedFrom) {
+        int fixedSteps = !noJitterSearch ? unfixedFrom : unfixedFrom < tasks.length ? tasks[unfixedFrom] : ttTaskNum;
+        int[] readTaskPeriods = sgc.getReadTaskPeriods();
+        if (readTaskPeriods == null) {
+            return; //The graph did not track read jobs
+        }
+        int horizon = sgc.getReadHorizon();
+        int[] positions = new int[taskMajorTasks.length];
+        int[] startTimes = new int[taskMajorTasks.length];
+        int[] laterPositions = new int[taskMajorTasks.length];
+        int count = 0, laterCount = 0;
+        int lastStep = -1;
+        for (int pos = 0; pos < taskMajorTasks.length; pos++) {
+            if (readTaskPeriods[taskMajorTasks[pos]] < taskMajorRepetitions[pos]) {
+                continue; //The job was not read
+            }
+            int startTime = allJobs[taskMajorTasks[pos]].get(taskMajorRepetitions[pos]).getReleaseTimeMin();
+            if (policy == SchedulingPolicy.EDFFP && startTime > horizon) {
+                if (originalReleases[pos] > horizon) {
+                    continue; //The job cannot start before the horizon
+                }
+                laterPositions[laterCount++] = pos;
+            } else if (fixingStep[pos] >= fixedSteps) {
+                return; //A job which was not fixed yet was read, its start time is not known
+            } else {
+                positions[count] = pos;
+                startTimes[count++] = startTime;
+            }
+            lastStep = Math.max(lastStep, fixingStep[pos]);
+        }
+        if (lastStep == -1) {
+            unconditionalDeadlineMiss = true;
+            return;
+        }
+        if (nogoods == null) {
+            nogoods = new LinkedHashMap<Long, ArrayList<Nogood>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ArrayList<Nogood>> eldest) {
+                    return size() > NOGOOD_CACHE_SIZE;
+                }
+            };
+        }
+        ArrayList<Nogood> keyNogoods = nogoods.computeIfAbsent(nogoodKey(lastStep, stepStartTime(lastStep)),
+                k -> new ArrayList<>());
+        if (keyNogoods.size() == NOGOODS_PER_KEY) {
+            keyNogoods.remove(0);
+        }
+        keyNogoods.add(new Nogood(Arrays.copyOf(positions, count), Arrays.copyOf(startTimes, count),
+                Arrays.copyOf(laterPositions, laterCount), horizon));
+    }
+
+    /**
+     * @return start time of the job (or of the first job of the task) fixed in a step of the search
+     */
+    private int stepStartTime(int step) {
+        EtJob job = noJitterSearch ? allJobs[step].get(0) : allJobs[orderTasks[step]].get(orderRepetitions[step]);
+        return job.getReleaseTimeMin();
+    }
+
+    /**
+     * Checks if the current placement contains a cached nogood whose last job was just fixed
+     * @param step step of the search in which the job (or the task) was fixed
+     * @param startTime start time of the job (or of the first job of the task)
+     */
+    private boolean containsNogood(int step, int startTime) {
+        nogoodLookups++;
+        if (unconditionalDeadlineMiss) {
+            return true;
+        }
+        ArrayList<Nogood> candidates = nogoods == null ? null : nogoods.get(nogoodKey(step, startTime));
+        if (candidates == null) {
+            return false;
+        }
+        for (Nogood nogood : candidates) {
+            boolean contained = true;
+            for (int i = 0; i < nogood.positions.length && contained; i++) {
+                int pos = nogood.positions[i];
+                contained = allJobs[taskMajorTasks[pos]].get(taskMajorRepetitions[pos]).getReleaseTimeMin()
+                        == nogood.startTimes[i];
+            }
+            for (int i = 0; i < nogood.laterPositions.length && contained; i++) {
+                int pos = nogood.laterPositions[i];
+                contained = allJobs[taskMajorTasks[pos]].get(taskMajorRepetitions[pos]).getReleaseTimeMin()
+                        > nogood.horizon;
+            }
+            if (contained) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public int[][] getStartTimes() {
         int[][] ret = new int[ttTaskNum][];
         for (int i = 0; i < ttTaskNum; i++) {
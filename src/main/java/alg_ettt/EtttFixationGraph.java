@@ -2,6 +2,7 @@ package alg_ettt;
 
 import model.EtJob;
 import model.TtJob;
+import util.ZobristHasher;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -21,13 +22,20 @@ public class EtttFixationGraph {
         int id;
         int[] ttTaskPeriods;
         int[] etTaskPeriods;
+        long hash; //Zobrist hash of both task period arrays
         ArrayList<Node> parents;
         ArrayList<Node> children;
 
         public Node(int[] ttTaskPeriods, int[] etTaskPeriods) {
+            this(ttTaskPeriods, etTaskPeriods, hasher.hash(ttTaskPeriods, 0, 0, ttTaskPeriods.length)
+                    ^ hasher.hash(etTaskPeriods, 0, ttTaskPeriods.length, etTaskPeriods.length));
+        }
+
+        public Node(int[] ttTaskPeriods, int[] etTaskPeriods, long hash) {
             this.id = lastNodeId++;
             this.etTaskPeriods = etTaskPeriods;
             this.ttTaskPeriods = ttTaskPeriods;
+            this.hash = hash;
             this.parents = new ArrayList<>();
             this.children = new ArrayList<>();
         }
@@ -80,14 +88,13 @@ public class EtttFixationGraph {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             Node node = (Node) o;
-            return Arrays.equals(ttTaskPeriods, node.ttTaskPeriods) && Arrays.equals(etTaskPeriods, node.etTaskPeriods);
+            return hash == node.hash && Arrays.equals(ttTaskPeriods, node.ttTaskPeriods)
+                    && Arrays.equals(etTaskPeriods, node.etTaskPeriods);
         }
 
         @Override
         public int hashCode() {
-            int result = Arrays.hashCode(ttTaskPeriods);
-            result = 31 * result + Arrays.hashCode(etTaskPeriods);
-            return result;
+            return ZobristHasher.fold(hash);
         }
     }
 
@@ -109,6 +116,13 @@ public class EtttFixationGraph {
             this.causedDeadlineMiss = causedDeadlineMiss;
         }
 
+        public EtNode(int[] ttTaskPeriods, int[] etTaskPeriods, long hash, int min, int max, boolean causedDeadlineMiss) {
+            super(ttTaskPeriods, etTaskPeriods, hash);
+            this.min = min;
+            this.max = max;
+            this.causedDeadlineMiss = causedDeadlineMiss;
+        }
+
         public int getMin() {
             return min;
         }
@@ -118,9 +132,11 @@ public class EtttFixationGraph {
         }
 
         public EtNode getNewNodeForEtJob(EtJob job, int minRelease, int maxRelease) {
+            int etTaskIndex = job.getTaskId() - ttJobs.length;
             int[] newEtTaskPeriods = Arrays.copyOf(etTaskPeriods, etTaskPeriods.length);
-            newEtTaskPeriods[job.getTaskId() - ttJobs.length]++;
+            newEtTaskPeriods[etTaskIndex]++;
             EtNode nextNode = new EtNode(ttTaskPeriods, newEtTaskPeriods,
+                    hasher.increment(hash, job.getTaskId(), etTaskPeriods[etTaskIndex]),
                     minRelease+job.getExecutionTimeMin(),
                     maxRelease+job.getExecutionTimeMax(),
                     maxRelease+job.getExecutionTimeMax() > job.getDeadline());
@@ -583,10 +599,19 @@ public class EtttFixationGraph {
     ArrayList<EtJob>[] etJobs;
     EtNode rootNode;
     Stack<TtNode> decisionNodes;
+    final ZobristHasher hasher; //Hashes TT task periods as tasks 0 ... |TT|-1 and ET task periods as the following tasks
 
     public EtttFixationGraph(ArrayList<TtJob>[] ttJobs, ArrayList<EtJob>[] etJobs) {
         this.ttJobs = ttJobs;
         this.etJobs = etJobs;
+        int[] jobCounts = new int[ttJobs.length + etJobs.length];
+        for (int i = 0; i < ttJobs.length; i++) {
+            jobCounts[i] = ttJobs[i].size();
+        }
+        for (int i = 0; i < etJobs.length; i++) {
+            jobCounts[ttJobs.length + i] = etJobs[i].size();
+        }
+        this.hasher = new ZobristHasher(jobCounts);
         this.rootNode = new EtNode(new int[ttJobs.length], new int[etJobs.length], 0, 0);
     }
 
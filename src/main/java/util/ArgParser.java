@@ -5,8 +5,8 @@ import java.util.HashMap;
 
 public class ArgParser {
 
-    private final static char[] flagArgs = {'v', 'i', 'h', 'g', 's', 'f'}; //Flag without an argument
-    private final static char[] specArgs = {'a', 'p'}; //Flag with an argument
+    private final static char[] flagArgs = {'v', 'i', 'h', 'g', 's', 'f', 'z'}; //Flag without an argument
+    private final static char[] specArgs = {'a', 'p', 't'}; //Flag with an argument
 
     public ArrayList<Character> presentFlags;
     public HashMap<Character, String> presentArgs;
@@ -0,0 +1,66 @@
+package util;
+
+/**
+ * Set of int intervals (with duplicates) which can be queried for intersections.
+ * Implemented by IntervalTree (nodes are objects) and ArrayIntervalTree (nodes are in primitive arrays).
+ */
+public interface IntervalIndex {
+
+    /**
+     * Adds a new interval, the arguments can be provided in the wrong order
+     */
+    void add(int lo, int hi);
+
+    /**
+     * Removes one copy of the given interval
+     * @return if the interval was found and removed
+     */
+    boolean remove(int lo, int hi);
+
+    /**
+     * @return higher number of an added interval which intersects the given interval, Integer.MIN_VALUE if there is
+     * no such interval. Every interval [lo + d, hi + d] with lo + d <= returned value intersects it as well.
+     */
+    int findIntersectingHi(int lo, int hi);
+
+    /**
+     * @return if the given interval intersects any added interval
+     */
+    default boolean intersects(int lo, int hi) {
+        return findIntersectingHi(lo, hi) != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds intervals [lo + i*period, hi + i*period] for i = 0 ... count-1
+     */
+    default void addAll(int lo, int hi, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            add(lo + i * period, hi + i * period);
+        }
+    }
+
+    /**
+     * Removes intervals [lo + i*period, hi + i*period] for i = 0 ... count-1
+     * @return if all of them were found and removed
+     */
+    default boolean removeAll(int lo, int hi, int period, int count) {
+        boolean ret = true;
+        for (int i = 0; i < count; i++) {
+            ret &= remove(lo + i * period, hi + i * period);
+        }
+        return ret;
+    }
+
+    /**
+     * @return if any of intervals [lo + i*period, hi + i*period] for i = 0 ... count-1 intersects an added interval
+     */
+    default boolean intersectsAny(int lo, int hi, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            if (intersects(lo + i * period, hi + i * period)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -3,14 +3,17 @@ package util;
 import java.util.*;
 
 /**
- * Simple implementation of an interval tree with int intervals.
- * Includes insert, remove and intersects methods.
+ * Interval tree with int intervals, implemented as an AVL tree ordered by (lo, hi) and augmented with the maximum
+ * hi of every subtree. All operations take O(log n) time even if intervals are added in sorted order.
+ * Includes insert, remove and intersects methods and their bulk variants for periodic families of intervals.
  */
 public class IntervalTree {
 
     private Node root; //Root node of the tree, it is null if the tree is empty
 
-    private class Node {
+    private boolean removed; //Set by removeRec if a node was found
+
+    private static class Node {
 
         //Lower number in an interval
         int lo;
@@ -18,11 +21,14 @@ public class IntervalTree {
         //Higher number in an interval
         int hi;
 
+        //Number of copies of the interval
+        int count = 1;
+
         //Maximum hi value in current subtree
         int max;
 
-        //Parent node
-        Node parent;
+        //Height of the subtree, a leaf has height 1
+        int height = 1;
 
         //Left child
         Node left;
@@ -46,23 +52,23 @@ public class IntervalTree {
         }
 
         /**
-         * Replaces this node in its parent with a new child.
-         * Also sets the parent in the new child node.
-         * @param newChild new child to replace this node
+         * @return negative number if the given interval is ordered before this node, 0 if it is the same interval
          */
-        private void changeParentsChildTo(Node newChild) {
-            if (parent == null) {
-                root = newChild;
-            } else {
-                boolean leftChild = lo <= parent.lo;
-                if (leftChild) {
-                    parent.left = newChild;
-                } else {
-                    parent.right = newChild;
-                }
-                if (newChild != null) {
-                    newChild.parent = parent;
-                }
+        private int compare(int otherLo, int otherHi) {
+            return otherLo != lo ? Integer.compare(otherLo, lo) : Integer.compare(otherHi, hi);
+        }
+
+        /**
+         * Recomputes height and max from the children
+         */
+        private void update() {
+            height = 1 + Math.max(height(left), height(right));
+            max = hi;
+            if (left != null && left.max > max) {
+                max = left.max;
+            }
+            if (right != null && right.max > max) {
+                max = right.max;
             }
         }
 
@@ -72,6 +78,10 @@ public class IntervalTree {
         }
     }
 
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
     /**
      * Adds a new interval into the interval tree.
      * The arguments can be provided in the wrong order.
@@ -84,31 +94,31 @@ public class IntervalTree {
             lo = hi;
             hi = tmp;
         }
-        Node toInsertNode = new Node(lo, hi);
-        if (root == null) {
-            root = toInsertNode;
-            return;
+        root = addRec(root, lo, hi);
+    }
+
+    private Node addRec(Node node, int lo, int hi) {
+        if (node == null) {
+            return new Node(lo, hi);
         }
-        Node cur = root;
-        while (true) {
-            if (lo > cur.lo) {
-                if (cur.right == null) {
-                    cur.right = toInsertNode;
-                    break;
-                }
-                cur = cur.right;
-            } else {
-                if (cur.left == null) {
-                    cur.left = toInsertNode;
-                    break;
-                }
-                cur = cur.left;
-            }
+        int cmp = node.compare(lo, hi);
+        if (cmp == 0) {
+            node.count++;
+            return node;
+        } else if (cmp < 0) {
+            node.left = addRec(node.left, lo, hi);
+        } else {
+            node.right = addRec(node.right, lo, hi);
         }
-        toInsertNode.parent = cur;
-        while (cur != null && cur.max < toInsertNode.max) {
-            cur.max = toInsertNode.max;
-            cur = cur.parent;
+        return balance(node);
+    }
+
+    /**
+     * Adds intervals [lo + i*period, hi + i*period] for i = 0 ... count-1
+     */
+    public void addAll(int lo, int hi, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            add(lo + i * period, hi + i * period);
         }
     }
 
@@ -118,17 +128,40 @@ public class IntervalTree {
      * @return if the given interval intersects any other interval inserted into the tree
      */
     public boolean intersects(int lo, int hi) {
+        return findIntersectingHi(lo, hi) != Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return if any of intervals [lo + i*period, hi + i*period] for i = 0 ... count-1 intersects an interval
+     * inserted into the tree
+     */
+    public boolean intersectsAny(int lo, int hi, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            if (intersects(lo + i * period, hi + i * period)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param lo lower number in a given interval
+     * @param hi higher number in a given interval
+     * @return higher number of an interval in the tree which intersects the given interval, Integer.MIN_VALUE if
+     * there is no such interval. Every interval [lo + d, hi + d] with lo + d <= returned value intersects it as well.
+     */
+    public int findIntersectingHi(int lo, int hi) {
         Node cur = root;
         while (cur != null) {
             if (cur.intersects(lo, hi)) {
-                return true;
+                return cur.hi;
             } else if (cur.left == null || cur.left.max < lo) {
                 cur = cur.right;
             } else {
                 cur = cur.left;
             }
         }
-        return false;
+        return Integer.MIN_VALUE;
     }
 
     /**
@@ -138,129 +171,133 @@ public class IntervalTree {
      * @return if the node was found and removed
      */
     public boolean remove(int lo, int hi) {
-        Node cur = root;
-        while (cur != null) {
-            if (lo > cur.lo) {
-                cur = cur.right;
-            } else if (lo < cur.lo) {
-                cur = cur.left;
-            } else {
-                if (cur.hi == hi) {
-                    removeNode(cur);
-                    return true;
-                } else {
-                    cur = cur.left;
-                }
+        removed = false;
+        root = removeRec(root, lo, hi);
+        return removed;
+    }
+
+    private Node removeRec(Node node, int lo, int hi) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compare(lo, hi);
+        if (cmp < 0) {
+            node.left = removeRec(node.left, lo, hi);
+        } else if (cmp > 0) {
+            node.right = removeRec(node.right, lo, hi);
+        } else {
+            removed = true;
+            if (node.count > 1) {
+                node.count--;
+                return node;
             }
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            //Replace the node by the smallest interval of its right subtree
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.lo = successor.lo;
+            node.hi = successor.hi;
+            node.count = successor.count;
+            node.right = removeMin(node.right);
         }
-        return false;
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
     }
 
     /**
-     * Removes a specified node in the tree
-     * @param toDelete node to delete from the tree
+     * Removes intervals [lo + i*period, hi + i*period] for i = 0 ... count-1
+     * @return if all of them were found and removed
      */
-    private void removeNode(Node toDelete) {
-        if (toDelete.left == null && toDelete.right == null) { //Node has no child
-            if (toDelete == root) {
-                root = null;
-            } else {
-                toDelete.changeParentsChildTo(null);
-                propagateSmallerMaxToParents(toDelete.parent);
-            }
-        } else if (toDelete.left == null) { //Node has only right child
-            if (toDelete == root) {
-                root = toDelete.right;
-            } else {
-                toDelete.changeParentsChildTo(toDelete.right);
-                propagateSmallerMaxToParents(toDelete.parent);
-            }
-        } else if (toDelete.right == null) { //Node has only left child
-            if (toDelete == root) {
-                root = toDelete.left;
-            } else {
-                toDelete.changeParentsChildTo(toDelete.left);
-                propagateSmallerMaxToParents(toDelete.parent);
-            }
-        } else { //Node has 2 children
-            Node cur = toDelete.left;
-            while (cur.right != null) {
-                cur = cur.right;
-            }
-            int deletedLo = cur.lo;
-            int deletedHi = cur.hi;
-            removeNode(cur);
-            toDelete.lo = deletedLo;
-            toDelete.hi = deletedHi;
-            propagateSmallerMaxToParents(toDelete);
+    public boolean removeAll(int lo, int hi, int period, int count) {
+        boolean ret = true;
+        for (int i = 0; i < count; i++) {
+            ret &= remove(lo + i * period, hi + i * period);
         }
+        return ret;
     }
 
     /**
-     * Updates max of a node and then propagates the change to parents if needed.
-     * @param cur node of which the max should be updated
+     * Updates the node after a change in its subtree and restores the AVL property with rotations
+     * @return new root of the subtree
      */
-    private void propagateSmallerMaxToParents(Node cur) {
-        while (cur != null) {
-            int overallMax = cur.hi;
-            if (cur.left != null && cur.left.max > overallMax) {
-                overallMax = cur.left.max;
-            }
-            if (cur.right != null && cur.right.max > overallMax) {
-                overallMax = cur.right.max;
+    private static Node balance(Node node) {
+        node.update();
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
             }
-            if (overallMax != cur.max) {
-                cur.max = overallMax;
-                cur = cur.parent;
-            } else {
-                break;
+            return rotateRight(node);
+        } else if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
             }
+            return rotateLeft(node);
         }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        node.update();
+        newRoot.update();
+        return newRoot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        node.update();
+        newRoot.update();
+        return newRoot;
     }
 
     /**
      * Debugging method.
-     * @return if the tree is structurally correct and all parent/child variable connections are correct
+     * @return if the tree is ordered, balanced and all max and height values are correct
      */
     public boolean testTreeCorrectness() {
-        if (root == null) {
-            return true;
+        return checkSubtree(root, Long.MIN_VALUE, Long.MAX_VALUE) >= 0;
+    }
+
+    /**
+     * @param lowerKey all intervals in the subtree must be ordered after it, key of [lo, hi] is lo * 2^32 + hi
+     * @param upperKey all intervals in the subtree must be ordered before it
+     * @return height of the subtree, -1 if it is incorrect
+     */
+    private static int checkSubtree(Node node, long lowerKey, long upperKey) {
+        if (node == null) {
+            return 0;
         }
-        Queue<Node> q = new LinkedList<>();
-        q.add(root);
-        while (!q.isEmpty()) {
-            Node curNode = q.poll();
-            if (curNode.left != null & curNode.right != null) { //curNode has 2 children
-                if (Collections.max(Arrays.asList(curNode.left.max,curNode.right.max,curNode.hi)) != curNode.max) {
-                    return false; //incorrect max
-                }
-                if (!curNode.left.parent.equals(curNode)) {
-                    return false; //wrong parent<->child connection for the left child
-                }
-                if (!curNode.right.parent.equals(curNode)) {
-                    return false; //wrong parent<->child connection for the right child
-                }
-                q.add(curNode.right);
-                q.add(curNode.left);
-            } else if (curNode.left != null) { //curNode has only left child
-                if (curNode.left.lo > curNode.lo || curNode.max != Math.max(curNode.left.max, curNode.hi)) {
-                    return false; //incorrect max
-                }
-                if (!curNode.left.parent.equals(curNode)) {
-                    return false; //wrong parent<->child connection
-                }
-                q.add(curNode.left);
-            } else if (curNode.right != null) { //curNode has only right child
-                if (curNode.right.lo <= curNode.lo || curNode.max != Math.max(curNode.right.max, curNode.hi)) {
-                    return false; //incorrect max
-                }
-                if (!curNode.right.parent.equals(curNode)) {
-                    return false; //wrong parent<->child connection
-                }
-                q.add(curNode.right);
-            }
+        long key = ((long) node.lo << 32) + node.hi;
+        if (key <= lowerKey || key >= upperKey || node.count < 1 || node.lo > node.hi) {
+            return -1; //wrong order
+        }
+        int leftHeight = checkSubtree(node.left, lowerKey, key);
+        int rightHeight = checkSubtree(node.right, key, upperKey);
+        if (leftHeight < 0 || rightHeight < 0 || Math.abs(leftHeight - rightHeight) > 1) {
+            return -1; //incorrect subtree or not balanced
+        }
+        int max = Math.max(node.hi, Math.max(node.left == null ? node.hi : node.left.max,
+                node.right == null ? node.hi : node.right.max));
+        if (node.max != max || node.height != 1 + Math.max(leftHeight, rightHeight)) {
+            return -1; //incorrect max or height
         }
-        return true;
+        return node.height;
     }
 
     /**
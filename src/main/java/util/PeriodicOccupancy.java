@@ -0,0 +1,201 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy of a timeline by executions of periodic jobs, used to find collisions between time triggered jobs.
+ * The timeline is a word-packed bitset, bit t is set if time unit t is occupied. A periodic execution is a job with
+ * the same start time in every period, it occupies [start + i*period, start + i*period + executionTime - 1] for
+ * i = 0 ... count-1.
+ * For periods with many jobs in the timeline, the occupancy is also kept folded modulo the period (occupied time
+ * units are counted per residue). If the jobs of a periodic execution cover the whole timeline, a collision of any of
+ * them is a collision in the folded bitset, so it is checked in one range query instead of one query per job.
+ */
+public class PeriodicOccupancy {
+
+    private static final int FOLD_MIN_JOBS = 8; //Periods with fewer jobs in the timeline are not folded
+
+    private final int length;
+    private final long[] timeline;
+
+    //Folded occupancy of period foldPeriods[f] is foldCounts[f] (occupied time units per residue) and foldBits[f]
+    //(bit r is set if foldCounts[f][r] > 0)
+    private final int[] foldPeriods;
+    private final int[][] foldCounts;
+    private final long[][] foldBits;
+
+    /**
+     * @param length length of the timeline, executions have to lie in [0, length)
+     * @param periods periods of the executions which will be checked, duplicates are allowed
+     */
+    public PeriodicOccupancy(int length, int[] periods) {
+        this.length = length;
+        this.timeline = new long[(length + 63) >>> 6];
+        int[] folded = new int[periods.length];
+        int foldCount = 0;
+        for (int period : periods) {
+            boolean duplicate = false;
+            for (int f = 0; f < foldCount; f++) {
+                duplicate |= folded[f] == period;
+            }
+            if (!duplicate && length % period == 0 && length / period >= FOLD_MIN_JOBS) {
+                folded[foldCount++] = period;
+            }
+        }
+        foldPeriods = Arrays.copyOf(folded, foldCount);
+        foldCounts = new int[foldCount][];
+        foldBits = new long[foldCount][];
+        for (int f = 0; f < foldCount; f++) {
+            foldCounts[f] = new int[foldPeriods[f]];
+            foldBits[f] = new long[(foldPeriods[f] + 63) >>> 6];
+        }
+    }
+
+    /**
+     * Finds a collision of a periodic execution with the occupied time units.
+     * @param start start time of the first job
+     * @param executionTime execution time of every job
+     * @param period period of the jobs
+     * @param count number of jobs
+     * @return Integer.MIN_VALUE if no job collides, otherwise a start time (at least start) such that the execution
+     * collides for every start time from start to it
+     */
+    public int findBlockedUntil(int start, int executionTime, int period, int count) {
+        int f = foldIndex(period);
+        if (f >= 0 && count * period == length && start >= 0 && start + executionTime <= period) {
+            //The jobs cover every time unit of residues start ... start+executionTime-1
+            int blocked = firstSet(foldBits[f], start, start + executionTime - 1);
+            if (blocked < 0) {
+                return Integer.MIN_VALUE;
+            }
+            return nextClear(foldBits[f], blocked, period - 1) - 1;
+        }
+        for (int i = 0; i < count; i++) {
+            int lo = start + i * period;
+            int blocked = firstSet(timeline, Math.max(lo, 0), Math.min(lo + executionTime - 1, length - 1));
+            if (blocked >= 0) {
+                return nextClear(timeline, blocked, length - 1) - 1 - i * period;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Marks time units of a periodic execution as occupied, it must not collide with other executions
+     */
+    public void add(int start, int executionTime, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            setRange(timeline, start + i * period, start + i * period + executionTime - 1, true);
+        }
+        updateFolds(start, executionTime, period, count, 1);
+    }
+
+    /**
+     * Marks time units of a periodic execution added by add(...) as free
+     */
+    public void remove(int start, int executionTime, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            setRange(timeline, start + i * period, start + i * period + executionTime - 1, false);
+        }
+        updateFolds(start, executionTime, period, count, -1);
+    }
+
+    private int foldIndex(int period) {
+        for (int f = 0; f < foldPeriods.length; f++) {
+            if (foldPeriods[f] == period) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the jobs of a periodic execution to the counters of every folded period.
+     * Jobs i and i + foldPeriod/gcd(foldPeriod, period) have the same residues, so only the first of them are
+     * counted, with the number of jobs they represent as a weight.
+     */
+    private void updateFolds(int start, int executionTime, int period, int count, int sign) {
+        for (int f = 0; f < foldPeriods.length; f++) {
+            int foldPeriod = foldPeriods[f];
+            int[] counts = foldCounts[f];
+            long[] bits = foldBits[f];
+            int cycle = foldPeriod / gcd(foldPeriod, period);
+            for (int i = 0; i < Math.min(count, cycle); i++) {
+                int weight = sign * ((count - 1 - i) / cycle + 1);
+                int r = (int) (((long) start + (long) i * period) % foldPeriod);
+                for (int t = 0; t < executionTime; t++) {
+                    int before = counts[r];
+                    counts[r] += weight;
+                    if (before == 0 || counts[r] == 0) {
+                        setRange(bits, r, r, counts[r] > 0);
+                    }
+                    if (++r == foldPeriod) {
+                        r = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Sets or clears bits from ... to (inclusive)
+     */
+    private static void setRange(long[] bits, int from, int to, boolean value) {
+        int fromWord = from >>> 6, toWord = to >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            long mask = -1L;
+            if (w == fromWord) {
+                mask &= -1L << (from & 63);
+            }
+            if (w == toWord) {
+                mask &= -1L >>> (63 - (to & 63));
+            }
+            bits[w] = value ? bits[w] | mask : bits[w] & ~mask;
+        }
+    }
+
+    /**
+     * @return first set bit in from ... to (inclusive), -1 if there is none
+     */
+    private static int firstSet(long[] bits, int from, int to) {
+        if (from > to) {
+            return -1;
+        }
+        int fromWord = from >>> 6, toWord = to >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            long word = bits[w];
+            if (w == fromWord) {
+                word &= -1L << (from & 63);
+            }
+            if (w == toWord) {
+                word &= -1L >>> (63 - (to & 63));
+            }
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return first clear bit in from ... limit (inclusive), limit + 1 if there is none
+     */
+    private static int nextClear(long[] bits, int from, int limit) {
+        int fromWord = from >>> 6, limitWord = limit >>> 6;
+        for (int w = fromWord; w <= limitWord; w++) {
+            long word = ~bits[w];
+            if (w == fromWord) {
+                word &= -1L << (from & 63);
+            }
+            if (word != 0) {
+                return Math.min((w << 6) + Long.numberOfTrailingZeros(word), limit + 1);
+            }
+        }
+        return limit + 1;
+    }
+
+}
@@ -0,0 +1,72 @@
+package util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of task period vectors.
+ * Every (task, period) pair gets a random 64-bit key and the hash of a vector is the xor of the keys of its elements.
+ * When one job of a task is finished, the hash can be updated in O(1) instead of rehashing the whole vector.
+ */
+public class ZobristHasher {
+
+    private static final long SEED = 0x5DEECE66DL; //Fixed seed, so the hashes are the same in every run
+
+    private final long[][] keys; //keys[task][period]
+
+    /**
+     * @param jobCounts number of jobs of each task, periods of task i can be 0 ... jobCounts[i]
+     */
+    public ZobristHasher(int[] jobCounts) {
+        SplittableRandom r = new SplittableRandom(SEED);
+        keys = new long[jobCounts.length][];
+        for (int i = 0; i < jobCounts.length; i++) {
+            keys[i] = new long[jobCounts[i] + 1];
+            for (int j = 0; j <= jobCounts[i]; j++) {
+                keys[i][j] = r.nextLong();
+            }
+        }
+    }
+
+    /**
+     * @param taskPeriods array containing the task period vector
+     * @param offset index at which the vector starts in taskPeriods
+     * @return hash of the whole vector
+     */
+    public long hash(int[] taskPeriods, int offset) {
+        return hash(taskPeriods, offset, 0, keys.length);
+    }
+
+    /**
+     * Hashes a part of the vector, useful when a vector is split into more arrays.
+     * @param taskPeriods array containing the periods of tasks firstTask ... firstTask+taskCount-1
+     * @param offset index at which the period of task firstTask is in taskPeriods
+     * @param firstTask first task of the part
+     * @param taskCount number of tasks in the part
+     * @return hash of the part, hash of the whole vector is the xor of hashes of all its parts
+     */
+    public long hash(int[] taskPeriods, int offset, int firstTask, int taskCount) {
+        long ret = 0;
+        for (int i = 0; i < taskCount; i++) {
+            ret ^= keys[firstTask + i][taskPeriods[offset + i]];
+        }
+        return ret;
+    }
+
+    /**
+     * @param hash hash of a vector
+     * @param task task whose period is incremented
+     * @param oldPeriod period of the task before the increment
+     * @return hash of the vector after the period of the task is incremented
+     */
+    public long increment(long hash, int task, int oldPeriod) {
+        return hash ^ keys[task][oldPeriod] ^ keys[task][oldPeriod + 1];
+    }
+
+    /**
+     * Folds a 64-bit hash into an int, for example for hashCode()
+     */
+    public static int fold(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
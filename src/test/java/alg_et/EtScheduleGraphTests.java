@@ -0,0 +1,318 @@
+package alg_et;
+
+import model.EtJob;
+import model.EtTask;
+import model.SchedulingPolicy;
+import org.junit.Test;
+import util.InstanceGenerator;
+import util.ZobristHasher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EtScheduleGraphTests {
+
+    private static final int INSTANCES = 150;
+
+    /**
+     * Generates a small random ET instance, the instance is the same for the same seed
+     */
+    static ArrayList<EtTask> generateInstance(long seed) {
+        int taskNum = 3 + (int) (seed % 4);
+        double utilization = 0.5 + (seed % 5) * 0.1;
+        return InstanceGenerator.generateEtTasks(taskNum, 120, 20, utilization, 10, 0.3,
+                0.5, 0.5, 0.5, 0.3, 0.5, 1, 3, seed, null, 0);
+    }
+
+    /**
+     * @return the verdict of the original schedule graph which keeps every node as an object
+     */
+    static boolean objectGraphVerdict(ArrayList<EtTask> etTasks, SchedulingPolicy policy, boolean terminateAfterDeadlineMiss) {
+        EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+        sgt.setUseNodeStore(false);
+        return sgt.generateGraphTest(terminateAfterDeadlineMiss, policy, false);
+    }
+
+    @Test
+    public void nodeStoreMatchesObjectGraphTest() {
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            ArrayList<EtTask> etTasks = generateInstance(seed);
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean terminate : new boolean[]{true, false}) {
+                    boolean expected = objectGraphVerdict(etTasks, policy, terminate);
+                    EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                    assertEquals("Seed " + seed + ", policy " + policy, expected,
+                            sgt.generateGraphTest(terminate, policy, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nodeStoreMergeTest() {
+        Random r = new Random(0);
+        ZobristHasher hasher = new ZobristHasher(new int[]{3, 3});
+        for (int round = 0; round < 200; round++) {
+            //Small ranges of earliest finish times use counting sort, large ones the fallback sort
+            int timeRange = round % 2 == 0 ? 50 : 1_000_000;
+            NodeStore store = new NodeStore(2, 1, hasher);
+            int nodes = 1 + r.nextInt(300);
+            for (int i = 0; i < nodes; i++) {
+                int min = r.nextInt(timeRange);
+                store.add(min, min + r.nextInt(timeRange / 10), new int[]{r.nextInt(3), r.nextInt(3)}, r.nextInt(20) == 0, i);
+            }
+            NodeStore merged = new NodeStore(2, 1, hasher);
+            store.mergeInto(merged);
+
+            //Merge of every group of nodes with the same task periods separately by brute force
+            int mergedIndex = 0;
+            boolean[] done = new boolean[nodes];
+            for (int first = 0; first < nodes; first++) {
+                if (done[first]) {
+                    continue;
+                }
+                ArrayList<Integer> group = new ArrayList<>();
+                for (int i = first; i < nodes; i++) {
+                    if (store.sameTaskPeriods(first, i)) {
+                        group.add(i);
+                        done[i] = true;
+                    }
+                }
+                group.sort(Comparator.comparingInt((Integer i) -> store.min[i]).thenComparingInt(i -> i));
+                int k = 0;
+                while (k < group.size()) {
+                    int part = group.get(k);
+                    int max = store.max[part];
+                    boolean miss = store.causedDeadlineMiss(part);
+                    for (k++; k < group.size() && max >= store.min[group.get(k)]; k++) {
+                        max = Math.max(max, store.max[group.get(k)]);
+                        miss |= store.causedDeadlineMiss(group.get(k));
+                    }
+                    assertEquals(store.min[part], merged.min[mergedIndex]);
+                    assertEquals(max, merged.max[mergedIndex]);
+                    assertEquals(miss, merged.causedDeadlineMiss(mergedIndex));
+                    assertEquals(part, merged.parent[mergedIndex]);
+                    assertEquals(store.hash[part], merged.hash[mergedIndex]);
+                    mergedIndex++;
+                }
+            }
+            assertEquals(mergedIndex, merged.size);
+        }
+    }
+
+    private static final Pattern NODE_RECORD = Pattern.compile("^S(\\d+)\\[label=\"S\\d+: ([^\"]*)\"");
+    private static final Pattern NODE_ID = Pattern.compile("S(\\d+)");
+
+    /**
+     * Reads records of a DOT file with task periods in node labels in sorted order. Node IDs depend on the order
+     * in which the nodes are merged, so every ID is replaced by the label of its node (in one level, the finish
+     * time interval and the task periods identify a node).
+     */
+    private static List<String> readCanonicalRecords(Path path, boolean compressed) throws IOException {
+        InputStream is = Files.newInputStream(path);
+        if (compressed) {
+            is = new GZIPInputStream(is);
+        }
+        List<String> lines;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            lines = br.lines().collect(Collectors.toList());
+        }
+        HashMap<String, String> nodeLabels = new HashMap<>();
+        for (String line : lines) {
+            Matcher m = NODE_RECORD.matcher(line);
+            if (m.find()) {
+                nodeLabels.put(m.group(1), m.group(2));
+            }
+        }
+        List<String> ret = new ArrayList<>();
+        for (String line : lines) {
+            Matcher m = NODE_ID.matcher(line);
+            StringBuffer sb = new StringBuffer();
+            while (m.find()) {
+                m.appendReplacement(sb, Matcher.quoteReplacement("{" + nodeLabels.get(m.group(1)) + "}"));
+            }
+            m.appendTail(sb);
+            ret.add(sb.toString());
+        }
+        ret.sort(null);
+        return ret;
+    }
+
+    @Test
+    public void streamedGraphMatchesSavedGraphTest() throws IOException {
+        Path savedFile = Files.createTempFile("saved", ".sg.dot");
+        Path streamedFile = Files.createTempFile("streamed", ".sg.dot.gz");
+        try {
+            for (long seed = 0; seed < 40; seed++) {
+                ArrayList<EtTask> etTasks = generateInstance(seed);
+                for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                    boolean terminate = seed % 2 == 0;
+                    EtScheduleGraphTest saved = new EtScheduleGraphTest(etTasks);
+                    boolean expected = saved.generateGraphTest(terminate, policy, true);
+                    saved.saveGraphToFile(savedFile.toString(), true);
+                    EtScheduleGraphTest streamed = new EtScheduleGraphTest(etTasks);
+                    streamed.setParallelism(1 + (int) (seed % 3));
+                    assertEquals(expected, streamed.generateGraphTestToFile(terminate, policy, streamedFile.toString(),
+                            true, true));
+                    assertEquals("Seed " + seed + ", policy " + policy, readCanonicalRecords(savedFile, false),
+                            readCanonicalRecords(streamedFile, true));
+                }
+            }
+        } finally {
+            Files.delete(savedFile);
+            Files.delete(streamedFile);
+        }
+    }
+
+    @Test
+    public void depthFirstSearchMatchesGraphTest() {
+        int witnesses = 0;
+        int unschedulable = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            ArrayList<EtTask> etTasks = generateInstance(seed);
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                boolean expected = new EtScheduleGraphTest(etTasks).generateGraphTest(true, policy, false);
+                EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                assertEquals("Seed " + seed + ", policy " + policy, expected,
+                        sgt.generateGraphTestDepthFirst(policy, 1000));
+                ArrayList<EtJob> witness = sgt.getDeadlineMissWitness();
+                if (witness != null) {
+                    witnesses++;
+                    //Every task executes its jobs in order, the last job misses its deadline in the worst case
+                    int[] nextRepetition = new int[etTasks.size()];
+                    for (EtJob job : witness) {
+                        assertEquals(nextRepetition[job.getTaskId()]++, job.getRepetition());
+                    }
+                }
+                if (!expected) {
+                    unschedulable++;
+                }
+            }
+        }
+        assertTrue("Depth first search found only " + witnesses + " of " + unschedulable + " deadline misses",
+                witnesses * 10 >= unschedulable * 9);
+    }
+
+    @Test
+    public void policyKernelsMatchGenericExpansionTest() {
+        Random r = new Random(0);
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            ArrayList<EtTask> etTasks = generateInstance(seed);
+            EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+            int taskNum = etTasks.size();
+            for (int n = 0; n < 500; n++) {
+                //Random node, the kernels must behave the same even for nodes which are not in the schedule graph
+                int[] taskPeriods = new int[taskNum];
+                for (int i = 0; i < taskNum; i++) {
+                    taskPeriods[i] = r.nextInt(sgt.etJobs[i].size() + 1);
+                }
+                int min = r.nextInt(120);
+                int max = min + r.nextInt(n % 2 == 0 ? 5 : 60);
+                for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                    StringBuilder generic = new StringBuilder();
+                    StringBuilder dedicated = new StringBuilder();
+                    sgt.setUsePolicyKernels(false);
+                    sgt.expansionPhaseAnyPolicy(min, max, taskPeriods, 0, policy,
+                            (job, eet, let) -> generic.append(job.getTaskId()).append(':').append(eet).append('-').append(let).append(' '));
+                    sgt.setUsePolicyKernels(true);
+                    sgt.expansionPhaseAnyPolicy(min, max, taskPeriods, 0, policy,
+                            (job, eet, let) -> dedicated.append(job.getTaskId()).append(':').append(eet).append('-').append(let).append(' '));
+                    assertEquals("Seed " + seed + ", policy " + policy, generic.toString(), dedicated.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelExpansionMatchesSequentialTest() {
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            ArrayList<EtTask> etTasks = generateInstance(seed);
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean terminate : new boolean[]{true, false}) {
+                    boolean expected = new EtScheduleGraphTest(etTasks).generateGraphTest(terminate, policy, false);
+                    EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                    sgt.setParallelism(4);
+                    sgt.minParallelLevelSize = 1; //Expand even the smallest levels in parallel
+                    sgt.minChunkSize = 1;
+                    assertEquals("Seed " + seed + ", policy " + policy, expected,
+                            sgt.generateGraphTest(terminate, policy, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void segmentedGraphMatchesWholeGraphTest() {
+        int segmentedRuns = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            //Low utilization leaves idle gaps in which the hyperperiod can be split
+            ArrayList<EtTask> etTasks = InstanceGenerator.generateEtTasks(3 + (int) (seed % 4), 240, 20,
+                    0.2 + (seed % 4) * 0.1, 10, 0.3, 0.2, 0.5, 0.2, 0.3, 0.5, 1, 3, seed, null, 0);
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean terminate : new boolean[]{true, false}) {
+                    boolean expected = new EtScheduleGraphTest(etTasks).generateGraphTest(terminate, policy, false);
+                    EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                    sgt.setParallelism(4);
+                    sgt.setUseSegmentation(true);
+                    assertEquals("Seed " + seed + ", policy " + policy, expected,
+                            sgt.generateGraphTest(terminate, policy, false));
+                    if (sgt.analysedSegments > 1) {
+                        segmentedRuns++;
+                    }
+                }
+            }
+        }
+        assertTrue(segmentedRuns > 0);
+    }
+
+    @Test
+    public void windowsMatchWholeGraphTest() {
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            ArrayList<EtTask> etTasks = generateInstance(seed);
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                boolean expected = new EtScheduleGraphTest(etTasks).generateGraphTest(false, policy, false);
+                EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                int[] root = new int[etTasks.size()];
+                int[] jobCounts = new int[etTasks.size()];
+                for (int i = 0; i < jobCounts.length; i++) {
+                    jobCounts[i] = sgt.etJobs[i].size();
+                }
+
+                //Window of the whole graph, the nodes in which all jobs are finished are its frontier
+                assertEquals("Seed " + seed + ", policy " + policy, expected,
+                        sgt.generateGraphTestWindow(root, 0, 0, Integer.MAX_VALUE, jobCounts, false, policy));
+                for (EtScheduleGraphTest.FrontierNode node : sgt.getWindowFrontier()) {
+                    assertTrue(Arrays.equals(jobCounts, node.getTaskPeriods()));
+                }
+
+                //Window of the first half of the hyperperiod continued by windows starting in its frontier
+                boolean verdict = sgt.generateGraphTestWindow(root, 0, 0, 60, null, false, policy);
+                for (EtScheduleGraphTest.FrontierNode node : new ArrayList<>(sgt.getWindowFrontier())) {
+                    assertTrue(node.getMin() >= 60);
+                    verdict &= sgt.generateGraphTestWindow(node.getTaskPeriods(), node.getMin(), node.getMax(),
+                            Integer.MAX_VALUE, null, false, policy);
+                }
+                assertEquals("Seed " + seed + ", policy " + policy, expected, verdict);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package alg_et;
+
+import model.EtTask;
+import model.SchedulingPolicy;
+import util.InstanceGenerator;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares the generic computation of the critical job with the kernels dedicated to P-RM, CP and CW.
+ * Every configuration expands the same nodes (random walks in the schedule graphs of generated instances) and
+ * the best of several runs is printed.
+ * It is not a unit test, run it after mvn test-compile with:
+ * java -cp target/classes:target/test-classes alg_et.ExpansionKernelBenchmark
+ */
+public class ExpansionKernelBenchmark {
+
+    private static final int INSTANCES = 10;
+    private static final int NODES_PER_INSTANCE = 20000;
+    private static final int RUNS = 7;
+
+    private static int children; //Keeps the expansions from being optimized away
+
+    public static void main(String[] args) {
+        for (int taskNum : new int[]{5, 10, 20, 30}) {
+            ArrayList<EtScheduleGraphTest> tests = new ArrayList<>();
+            ArrayList<int[][]> nodes = new ArrayList<>();
+            Random r = new Random(taskNum);
+            for (long seed = 0; seed < INSTANCES; seed++) {
+                ArrayList<EtTask> etTasks = InstanceGenerator.generateEtTasks(taskNum, 2000, 100, 0.7, 10, 0.3,
+                        0.8, 0.8, 0.8, 0.3, 0.5, 1, 3, seed, null, 0);
+                EtScheduleGraphTest sgt = new EtScheduleGraphTest(etTasks);
+                tests.add(sgt);
+                //Nodes of random walks from the root, the first two elements of a node are its finish time interval
+                //and the rest are its task periods
+                int[][] instanceNodes = new int[NODES_PER_INSTANCE][];
+                int[] node = new int[2 + taskNum];
+                ArrayList<int[]> nodeChildren = new ArrayList<>();
+                for (int n = 0; n < NODES_PER_INSTANCE; n++) {
+                    instanceNodes[n] = node;
+                    nodeChildren.clear();
+                    int[] parent = node;
+                    sgt.expansionPhaseAnyPolicy(parent[0], parent[1], parent, 2, SchedulingPolicy.CW, (job, eet, let) -> {
+                        int[] child = parent.clone();
+                        child[0] = eet + job.getExecutionTimeMin();
+                        child[1] = let + job.getExecutionTimeMax();
+                        child[2 + job.getTaskId()]++;
+                        nodeChildren.add(child);
+                    });
+                    node = nodeChildren.isEmpty() ? new int[2 + taskNum] : nodeChildren.get(r.nextInt(nodeChildren.size()));
+                }
+                nodes.add(instanceNodes);
+            }
+            for (SchedulingPolicy policy : new SchedulingPolicy[]{SchedulingPolicy.PRM, SchedulingPolicy.CP, SchedulingPolicy.CW}) {
+                long generic = bestTime(tests, nodes, policy, false);
+                long dedicated = bestTime(tests, nodes, policy, true);
+                System.out.printf("%2d tasks, %-4s generic %6.1f ms, dedicated %6.1f ms, speedup %.2fx%n", taskNum, policy,
+                        generic / 1e6, dedicated / 1e6, (double) generic / dedicated);
+            }
+        }
+        System.out.println("(" + children + " children)");
+    }
+
+    private static long bestTime(ArrayList<EtScheduleGraphTest> tests, ArrayList<int[][]> nodes,
+                                 SchedulingPolicy policy, boolean usePolicyKernels) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < tests.size(); i++) {
+                EtScheduleGraphTest sgt = tests.get(i);
+                sgt.setUsePolicyKernels(usePolicyKernels);
+                for (int[] node : nodes.get(i)) {
+                    sgt.expansionPhaseAnyPolicy(node[0], node[1], node, 2, policy, (job, eet, let) -> children++);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+}
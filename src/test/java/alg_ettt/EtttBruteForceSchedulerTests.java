@@ -0,0 +1,235 @@
+package alg_ettt;
+
+import alg_et.EtScheduleGraphTest;
+import model.EtJob;
+import model.EtTask;
+import model.SchedulingPolicy;
+import model.TtJob;
+import model.TtTask;
+import org.junit.Test;
+import util.InstanceGenerator;
+import util.JobTaskUtils;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EtttBruteForceSchedulerTests {
+
+    private static final int INSTANCES = 20;
+
+    /**
+     * Generates a small random ETTT instance, the instance is the same for the same seed
+     * @return TT tasks and ET tasks of the instance
+     */
+    static Object[] generateInstance(long seed) {
+        ArrayList<TtTask> ttTasks = InstanceGenerator.generateTtTasks(1 + (int) (seed % 2), 60, 20, 0.2,
+                10, 0.3, 0.4, 0.3, 0.5, seed, null);
+        ArrayList<EtTask> etTasks = InstanceGenerator.generateEtTasks(2 + (int) (seed % 3), 60, 10,
+                0.3 + (seed % 4) * 0.1, 10, 0.3, 0.5, 0.5, 0.5, 0.3, 0.5, 1, 3, seed, null, ttTasks.size());
+        return new Object[]{ttTasks, etTasks};
+    }
+
+    /**
+     * @return if the TT jobs fixed with the given start times are schedulable together with the ET jobs
+     */
+    @SuppressWarnings("unchecked")
+    static boolean isSolution(ArrayList<TtTask> ttTasks, ArrayList<EtTask> etTasks, int[][] startTimes,
+                              SchedulingPolicy policy) {
+        int hyperperiod = JobTaskUtils.getHyperperiodForTasks(ttTasks, etTasks);
+        ArrayList<TtJob>[] ttJobs = JobTaskUtils.getTtJobsFromTtTasksAs2dArray(ttTasks, hyperperiod);
+        ArrayList<EtJob>[] fixedTtJobs = JobTaskUtils.fixTtJobsWithStartTimes(ttJobs, startTimes);
+        ArrayList<EtJob>[] etJobs = JobTaskUtils.getEtJobsFromEtTasksAs2dArray(etTasks, hyperperiod);
+        ArrayList<EtJob>[] allJobs = new ArrayList[fixedTtJobs.length + etJobs.length];
+        System.arraycopy(fixedTtJobs, 0, allJobs, 0, fixedTtJobs.length);
+        System.arraycopy(etJobs, 0, allJobs, fixedTtJobs.length, etJobs.length);
+        return new EtScheduleGraphTest(allJobs).generateGraphTest(true, policy, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void checkpointsMatchFullGraphsTest() {
+        long levels = 0, levelsWithCheckpoints = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean noJitter : new boolean[]{false, true}) {
+                    EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    boolean expectedResult = noJitter ? expected.processTasksNoJitter(true) : expected.processTasks(true);
+                    EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    ebfs.setUseCheckpoints(true);
+                    String msg = "Seed " + seed + ", policy " + policy + ", no jitter " + noJitter;
+                    assertEquals(msg, expectedResult, noJitter ? ebfs.processTasksNoJitter(true) : ebfs.processTasks(true));
+                    assertEquals(msg, expected.scheduleGraphCalls, ebfs.scheduleGraphCalls);
+                    assertArrayEquals(msg, expected.getStartTimes(), ebfs.getStartTimes());
+                    levels += expected.scheduleGraphLevels;
+                    levelsWithCheckpoints += ebfs.scheduleGraphLevels;
+                }
+            }
+        }
+        assertTrue(levelsWithCheckpoints < levels);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void prefixPruningMatchesBruteForceTest() {
+        int pruned = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean noJitter : new boolean[]{false, true}) {
+                    EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    boolean expectedResult = noJitter ? expected.processTasksNoJitter(true) : expected.processTasks(true);
+                    for (boolean useCheckpoints : new boolean[]{false, true}) {
+                        //Pruning removes only subtrees without a solution, so the same solution is found first
+                        EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                        ebfs.setUsePrefixPruning(true);
+                        ebfs.setUseCheckpoints(useCheckpoints);
+                        String msg = "Seed " + seed + ", policy " + policy + ", no jitter " + noJitter;
+                        assertEquals(msg, expectedResult,
+                                noJitter ? ebfs.processTasksNoJitter(true) : ebfs.processTasks(true));
+                        assertArrayEquals(msg, expected.getStartTimes(), ebfs.getStartTimes());
+                        assertTrue(msg, ebfs.scheduleGraphCalls <= expected.scheduleGraphCalls);
+                        pruned += ebfs.prunedPrefixes;
+                    }
+                    if (!noJitter) {
+                        EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                        ebfs.setUsePrefixPruning(true);
+                        ebfs.setOrderJobsByTime(true);
+                        ebfs.setUseCheckpoints(true);
+                        String msg = "Seed " + seed + ", policy " + policy + ", time order";
+                        assertEquals(msg, expectedResult, ebfs.processTasks(true));
+                        if (expectedResult) {
+                            assertTrue(msg, isSolution(ttTasks, etTasks, ebfs.getStartTimes(), policy));
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(pruned > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void parallelSearchMatchesSequentialTest() {
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean noJitter : new boolean[]{false, true}) {
+                    EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    expected.setUsePrefixPruning(true);
+                    expected.setOrderJobsByTime(true);
+                    boolean expectedResult = noJitter ? expected.processTasksNoJitter(true) : expected.processTasks(true);
+                    for (int threads : new int[]{1, 3}) {
+                        //The first solution in the sequential order is found regardless of the number of threads
+                        EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                        ebfs.setUsePrefixPruning(true);
+                        ebfs.setOrderJobsByTime(true);
+                        ebfs.setUseCheckpoints(true);
+                        String msg = "Seed " + seed + ", policy " + policy + ", no jitter " + noJitter + ", threads " + threads;
+                        assertEquals(msg, expectedResult, ebfs.processTasksParallel(true, noJitter, threads));
+                        assertArrayEquals(msg, expected.getStartTimes(), ebfs.getStartTimes());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nogoodCacheMatchesBruteForceTest() {
+        int hits = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                for (boolean noJitter : new boolean[]{false, true}) {
+                    EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    boolean expectedResult = noJitter ? expected.processTasksNoJitter(true) : expected.processTasks(true);
+                    for (boolean usePrefixPruning : new boolean[]{false, true}) {
+                        for (boolean useCheckpoints : new boolean[]{false, true}) {
+                            //Nogoods skip only placements which miss a deadline, so the same solution is found first
+                            EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                            ebfs.setUseNogoodCache(true);
+                            ebfs.setUsePrefixPruning(usePrefixPruning);
+                            ebfs.setUseCheckpoints(useCheckpoints);
+                            String msg = "Seed " + seed + ", policy " + policy + ", no jitter " + noJitter
+                                    + ", pruning " + usePrefixPruning + ", checkpoints " + useCheckpoints;
+                            assertEquals(msg, expectedResult,
+                                    noJitter ? ebfs.processTasksNoJitter(true) : ebfs.processTasks(true));
+                            assertArrayEquals(msg, expected.getStartTimes(), ebfs.getStartTimes());
+                            assertTrue(msg, ebfs.scheduleGraphCalls <= expected.scheduleGraphCalls);
+                            hits += ebfs.nogoodHits;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(hits > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void eventPointSolutionsAreValidTest() {
+        int found = 0, expectedFound = 0;
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                boolean expectedResult = expected.processTasks(true);
+                EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                ebfs.setUseEventPoints(true);
+                ebfs.setUsePrefixPruning(true);
+                ebfs.setOrderJobsByTime(true);
+                String msg = "Seed " + seed + ", policy " + policy;
+                //Event points are a heuristic, a solution may be missed, but a found one has to be valid
+                if (ebfs.processTasks(true)) {
+                    assertTrue(msg, expectedResult);
+                    assertTrue(msg, isSolution(ttTasks, etTasks, ebfs.getStartTimes(), policy));
+                    found++;
+                }
+                if (expectedResult) {
+                    expectedFound++;
+                }
+            }
+        }
+        assertTrue(found > 0 && found <= expectedFound);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void occupancyBitsetMatchesIntervalTreeTest() {
+        for (long seed = 0; seed < INSTANCES; seed++) {
+            Object[] instance = generateInstance(seed);
+            ArrayList<TtTask> ttTasks = (ArrayList<TtTask>) instance[0];
+            ArrayList<EtTask> etTasks = (ArrayList<EtTask>) instance[1];
+            for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+                EtttBruteForceScheduler expected = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                boolean expectedResult = expected.processTasksNoJitter(true);
+                for (int threads : new int[]{1, 3}) {
+                    //Both structures reject the same colliding start times, so the same placements are tested
+                    EtttBruteForceScheduler ebfs = new EtttBruteForceScheduler(ttTasks, etTasks, policy);
+                    ebfs.setUseOccupancyBitset(true);
+                    String msg = "Seed " + seed + ", policy " + policy + ", threads " + threads;
+                    assertEquals(msg, expectedResult, threads > 1 ? ebfs.processTasksParallel(true, true, threads)
+                            : ebfs.processTasksNoJitter(true));
+                    assertArrayEquals(msg, expected.getStartTimes(), ebfs.getStartTimes());
+                    if (threads == 1) {
+                        assertEquals(msg, expected.scheduleGraphCalls, ebfs.scheduleGraphCalls);
+                    }
+                }
+            }
+        }
+    }
+
+}
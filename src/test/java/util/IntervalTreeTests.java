@@ -3,8 +3,10 @@ package util;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -32,6 +34,21 @@ public class IntervalTreeTests {
         assertFalse(it.intersects(21,23));
     }
 
+    @Test
+    public void findIntersectingHiTest() {
+        IntervalTree it = new IntervalTree();
+        it.add(5,8);
+        it.add(12,14);
+        it.add(20,30);
+
+        assertEquals(Integer.MIN_VALUE, it.findIntersectingHi(9,11));
+        assertEquals(8, it.findIntersectingHi(7,9));
+        assertEquals(14, it.findIntersectingHi(9,12));
+        int hi = it.findIntersectingHi(10,21);
+        assertTrue(hi == 14 || hi == 30);
+        assertEquals(Integer.MIN_VALUE, it.findIntersectingHi(31,40));
+    }
+
     @Test
     public void insertStressTest() {
         int lowerBound = 0;
@@ -137,4 +154,83 @@ public class IntervalTreeTests {
 
     }
 
+    /**
+     * Compares the tree with a list of intervals in random sequences of adds (including periodic families),
+     * removes and queries
+     */
+    @Test
+    public void randomizedDifferentialTest() {
+        Random r = new Random(0);
+        for (int run = 0; run < 50; run++) {
+            IntervalTree it = new IntervalTree();
+            ArrayList<int[]> intervals = new ArrayList<>();
+            for (int step = 0; step < 500; step++) {
+                int lo = r.nextInt(1000);
+                int hi = lo + r.nextInt(20);
+                int op = r.nextInt(5);
+                if (op == 0) {
+                    it.add(lo, hi);
+                    intervals.add(new int[]{lo, hi});
+                } else if (op == 1) {
+                    int period = 21 + r.nextInt(50);
+                    int count = 1 + r.nextInt(5);
+                    boolean expected = false;
+                    for (int i = 0; i < count; i++) {
+                        expected |= naiveIntersects(intervals, lo + i * period, hi + i * period);
+                    }
+                    assertEquals(expected, it.intersectsAny(lo, hi, period, count));
+                    it.addAll(lo, hi, period, count);
+                    for (int i = 0; i < count; i++) {
+                        intervals.add(new int[]{lo + i * period, hi + i * period});
+                    }
+                } else if (op == 2 && !intervals.isEmpty()) {
+                    int[] interval = intervals.remove(r.nextInt(intervals.size()));
+                    assertTrue(it.remove(interval[0], interval[1]));
+                } else {
+                    assertEquals(naiveIntersects(intervals, lo, hi), it.intersects(lo, hi));
+                    int intersectingHi = it.findIntersectingHi(lo, hi);
+                    if (intersectingHi != Integer.MIN_VALUE) {
+                        boolean found = false;
+                        for (int[] interval : intervals) {
+                            found |= interval[1] == intersectingHi && interval[0] <= hi && interval[1] >= lo;
+                        }
+                        assertTrue(found);
+                    }
+                }
+                assertTrue(it.testTreeCorrectness());
+            }
+            assertFalse(it.remove(-10, -5));
+        }
+    }
+
+    private static boolean naiveIntersects(ArrayList<int[]> intervals, int lo, int hi) {
+        for (int[] interval : intervals) {
+            if (interval[0] <= hi && interval[1] >= lo) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Intervals added in sorted order (as by the brute force) must not make the tree degenerate
+     */
+    @Test
+    public void sortedInsertPerformanceTest() {
+        int n = 1 << 17;
+        IntervalTree it = new IntervalTree();
+        long start = System.nanoTime();
+        it.addAll(0, 4, 10, n);
+        for (int i = 0; i < n; i++) {
+            assertTrue(it.intersects(10 * i + 2, 10 * i + 3));
+            assertFalse(it.intersects(10 * i + 5, 10 * i + 9));
+        }
+        assertTrue(it.removeAll(0, 4, 10, n / 2));
+        System.out.println("Sorted inserts, queries and removes of " + n + " intervals: "
+                + (System.nanoTime() - start) / 1000000 + " ms, depth " + it.getTreeDepth());
+        //An AVL tree has depth at most 1.44 * log2(n + 2)
+        assertTrue(it.getTreeDepth() <= 1.44 * Math.log(n + 2) / Math.log(2));
+        assertTrue(it.testTreeCorrectness());
+    }
+
 }
@@ -0,0 +1,74 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodicOccupancyTests {
+
+    /**
+     * Adds and removes random periodic executions and compares collisions with a plain array of occupied time units
+     */
+    @Test
+    public void matchesOccupiedArrayTest() {
+        Random r = new Random(0);
+        int[] periods = {10, 20, 40, 120};
+        int length = 120;
+        for (int run = 0; run < 200; run++) {
+            PeriodicOccupancy occupancy = new PeriodicOccupancy(length, periods);
+            boolean[] occupied = new boolean[length];
+            ArrayList<int[]> added = new ArrayList<>();
+            for (int step = 0; step < 30; step++) {
+                int period = periods[r.nextInt(periods.length)];
+                int executionTime = 1 + r.nextInt(Math.min(period, 8));
+                int start = r.nextInt(period - executionTime + 1);
+                int count = length / period;
+                int blockedUntil = occupancy.findBlockedUntil(start, executionTime, period, count);
+                if (blockedUntil == Integer.MIN_VALUE) {
+                    assertTrue(!collides(occupied, start, executionTime, period, count));
+                    occupancy.add(start, executionTime, period, count);
+                    mark(occupied, start, executionTime, period, count, true);
+                    added.add(new int[]{start, executionTime, period, count});
+                } else {
+                    assertTrue(blockedUntil >= start);
+                    for (int s = start; s <= blockedUntil && s + executionTime <= period; s++) {
+                        assertTrue(collides(occupied, s, executionTime, period, count));
+                    }
+                }
+                if (!added.isEmpty() && r.nextInt(3) == 0) {
+                    int[] e = added.remove(r.nextInt(added.size()));
+                    occupancy.remove(e[0], e[1], e[2], e[3]);
+                    mark(occupied, e[0], e[1], e[2], e[3], false);
+                }
+            }
+            for (int start = 0; start < 10; start++) {
+                assertEquals(collides(occupied, start, 1, 10, 12),
+                        occupancy.findBlockedUntil(start, 1, 10, 12) != Integer.MIN_VALUE);
+            }
+        }
+    }
+
+    private static boolean collides(boolean[] occupied, int start, int executionTime, int period, int count) {
+        for (int i = 0; i < count; i++) {
+            for (int t = 0; t < executionTime; t++) {
+                if (occupied[start + i * period + t]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void mark(boolean[] occupied, int start, int executionTime, int period, int count, boolean value) {
+        for (int i = 0; i < count; i++) {
+            for (int t = 0; t < executionTime; t++) {
+                occupied[start + i * period + t] = value;
+            }
+        }
+    }
+
+}